@@ -0,0 +1,77 @@
+/*
+ * ConfigManager
+ * ConfigChange.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+/**
+ * Ein Eintrag im {@link ConfigChangeFeed Änderungsverlauf}. Beschreibt eine übernommene Änderung eines
+ * Konfigurationselements mit ihrer Sequenznummer.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigChangeFeed#changesSince(long)
+ */
+public final class ConfigChange {
+
+    private final long sequence;
+    private final String name;
+    private final ConfigElementType type;
+    private final String value;
+
+    ConfigChange(long sequence, String name, ConfigElementType type, String value) {
+        this.sequence = sequence;
+        this.name = name;
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * @return Die Sequenznummer der Änderung
+     * @see ConfigManager#getSequence()
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return Der {@link ConfigElement#name() Name} des geänderten Elements
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Der Typ des Elements oder {@code null}, falls dieser unbekannt ist
+     */
+    public ConfigElementType getType() {
+        return type;
+    }
+
+    /**
+     * @return Der neue Wert des Elements als Text
+     */
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigChange{" + sequence + ", " + name + "=" + value + "}";
+    }
+}
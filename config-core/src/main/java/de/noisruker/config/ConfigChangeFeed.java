@@ -0,0 +1,258 @@
+/*
+ * ConfigManager
+ * ConfigChangeFeed.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ein begrenzter Verlauf der letzten Änderungen, aus dem Verbraucher die Änderungen seit einer bekannten
+ * {@link ConfigManager#getSequence() Sequenznummer} in ihrem eigenen Thread abholen können, anstatt jede
+ * Änderung synchron über den {@link de.noisruker.event.EventManager} zu verarbeiten.
+ * <p>
+ * Die Änderungen liegen in einem Ringpuffer, dessen Größe eine Zweierpotenz ist. Das Schreiben und Lesen kommt
+ * ohne Sperren aus: jeder Eintrag trägt seine Sequenznummer, sodass ein Leser an ihr erkennt, ob ein Platz noch
+ * nicht geschrieben oder bereits überschrieben wurde. Ist ein Verbraucher so weit zurück, dass seine Änderungen
+ * überschrieben wurden, meldet der {@link Batch#isOverflow() Überlauf}, dass er die Werte neu einlesen muss.
+ * <pre>{@code
+ * ConfigChangeFeed feed = ConfigManager.getInstance().getChangeFeed();
+ * long seq = feed.getSequence();
+ * ...
+ * ConfigChangeFeed.Batch batch = feed.changesSince(seq);
+ * if (batch.isOverflow())
+ *     resync();
+ * else
+ *     batch.getChanges().forEach(this::apply);
+ * seq = batch.getSequence();
+ * }</pre>
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#getChangeFeed()
+ */
+public final class ConfigChangeFeed {
+
+    /**
+     * Die Anzahl der Änderungen, die der Verlauf des {@link ConfigManager Konfigurations-Managers} vorhält.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final AtomicReferenceArray<ConfigChange> slots;
+    private final int mask;
+
+    /**
+     * Die höchste veröffentlichte Sequenznummer.
+     */
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * Die Sequenznummer der ersten veröffentlichten Änderung.
+     */
+    private final AtomicLong oldest = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * Die Anzahl der in {@link #await(long, long, TimeUnit)} wartenden Threads. Nur wenn es welche gibt, wird
+     * beim Veröffentlichen {@link #monitor} benachrichtigt.
+     */
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final Object monitor = new Object();
+
+    /**
+     * @param capacity Die Mindestanzahl vorgehaltener Änderungen, wird auf die nächste Zweierpotenz aufgerundet
+     */
+    ConfigChangeFeed(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return Die Anzahl der Änderungen, die vorgehalten werden
+     */
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * @return Die Sequenznummer der zuletzt veröffentlichten Änderung
+     */
+    public long getSequence() {
+        return this.published.get();
+    }
+
+    /**
+     * Veröffentlicht eine Änderung. Die Sequenznummern werden vom {@link ConfigManager} vergeben und dürfen von
+     * mehreren Threads in beliebiger Reihenfolge veröffentlicht werden. Ein verspäteter Thread überschreibt dabei
+     * keinen Platz, der bereits eine neuere Änderung enthält; Leser erkennen die fehlende Änderung dann als Überlauf.
+     */
+    void publish(ConfigChange change) {
+        int index = (int) (change.getSequence() & this.mask);
+        ConfigChange current;
+        do {
+            current = this.slots.get(index);
+            if (current != null && current.getSequence() >= change.getSequence())
+                break;
+        } while (!this.slots.compareAndSet(index, current, change));
+        if (this.oldest.get() == Long.MAX_VALUE)
+            this.oldest.accumulateAndGet(change.getSequence(), Math::min);
+        this.published.accumulateAndGet(change.getSequence(), Math::max);
+        if (this.waiters.get() > 0) {
+            synchronized (this.monitor) {
+                this.monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Springt auf die Sequenznummer {@code sequence}, ohne die übersprungenen Nummern zu veröffentlichen, etwa nach
+     * dem Abspielen eines {@link ConfigJournal Journals}. Verbraucher, die vor dem Sprung stehen, erhalten einen
+     * {@link Batch#isOverflow() Überlauf} und lesen die Werte neu ein, anstatt auf die nie veröffentlichten
+     * Änderungen zu warten.
+     *
+     * @param sequence Die neue Sequenznummer
+     */
+    void skipTo(long sequence) {
+        if (this.published.get() >= sequence)
+            return;
+        this.oldest.accumulateAndGet(sequence + 1, (current, first) -> current == Long.MAX_VALUE ? first : Math.max(current, first));
+        this.published.accumulateAndGet(sequence, Math::max);
+        if (this.waiters.get() > 0) {
+            synchronized (this.monitor) {
+                this.monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Wartet, bis eine Änderung nach {@code sequence} veröffentlicht wurde.
+     *
+     * @param sequence Die Sequenznummer der zuletzt verarbeiteten Änderung
+     * @param timeout Die maximale Wartezeit
+     * @param unit Die Einheit von {@code timeout}
+     * @return Ob eine neuere Änderung vorliegt
+     * @throws InterruptedException Sollte der Thread beim Warten unterbrochen werden
+     */
+    public boolean await(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+        if (this.published.get() > sequence)
+            return true;
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        this.waiters.incrementAndGet();
+        try {
+            synchronized (this.monitor) {
+                while (this.published.get() <= sequence) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0)
+                        return false;
+                    TimeUnit.NANOSECONDS.timedWait(this.monitor, remaining);
+                }
+            }
+            return true;
+        } finally {
+            this.waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * @param sequence Die Sequenznummer der zuletzt verarbeiteten Änderung
+     * @return Alle vorgehaltenen Änderungen nach {@code sequence}
+     */
+    public Batch changesSince(long sequence) {
+        return this.changesSince(sequence, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gibt die Änderungen nach {@code sequence} in aufsteigender Reihenfolge zurück. Ist eine Änderung zwar
+     * vergeben, aber noch nicht veröffentlicht, endet die Liste vor ihr. Wurden bereits Änderungen nach
+     * {@code sequence} überschrieben, ist die Liste leer und {@link Batch#isOverflow()} gesetzt.
+     *
+     * @param sequence Die Sequenznummer der zuletzt verarbeiteten Änderung
+     * @param max Die maximale Anzahl zurückgegebener Änderungen
+     * @return Die Änderungen
+     */
+    public Batch changesSince(long sequence, int max) {
+        long head = this.published.get();
+        if (head <= sequence)
+            return new Batch(Collections.emptyList(), sequence, false);
+
+        long oldest = this.oldest.get();
+        if (head - sequence > this.getCapacity() || sequence + 1 < oldest)
+            return new Batch(Collections.emptyList(), head, true);
+
+        List<ConfigChange> changes = new ArrayList<>((int) Math.min(head - sequence, max));
+        long s = sequence + 1;
+        for (; s <= head && changes.size() < max; s++) {
+            ConfigChange change = this.slots.get((int) (s & this.mask));
+            if (change == null || change.getSequence() < s)
+                break;
+            if (change.getSequence() > s)
+                return new Batch(Collections.emptyList(), this.published.get(), true);
+            changes.add(change);
+        }
+        return new Batch(Collections.unmodifiableList(changes), s - 1, false);
+    }
+
+    /**
+     * Das Ergebnis von {@link #changesSince(long)}.
+     */
+    public static final class Batch {
+
+        private final List<ConfigChange> changes;
+        private final long sequence;
+        private final boolean overflow;
+
+        private Batch(List<ConfigChange> changes, long sequence, boolean overflow) {
+            this.changes = changes;
+            this.sequence = sequence;
+            this.overflow = overflow;
+        }
+
+        /**
+         * @return Die Änderungen in aufsteigender Reihenfolge
+         */
+        public List<ConfigChange> getChanges() {
+            return changes;
+        }
+
+        /**
+         * @return Die Sequenznummer, ab der beim nächsten Aufruf weitergelesen wird. Nach einem Überlauf ist das
+         * die neueste Sequenznummer, die nach dem Neueinlesen der Werte verwendet werden kann.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return Ob Änderungen verloren gegangen sind und die Werte neu eingelesen werden müssen
+         */
+        public boolean isOverflow() {
+            return overflow;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * ConfigManager
+ * ConfigChangeListener.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+/**
+ * Ein Zuhörer, der bei jeder übernommenen Änderung eines Konfigurationselements aufgerufen wird.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#addChangeListener(ConfigChangeListener)
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+
+    /**
+     * @param change Die Änderung
+     */
+    void onChange(ConfigChange change);
+}
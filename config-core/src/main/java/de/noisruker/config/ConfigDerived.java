@@ -0,0 +1,113 @@
+/*
+ * ConfigManager
+ * ConfigDerived.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ein aus Konfigurationselementen abgeleiteter Wert, zum Beispiel ein aus einem {@link ConfigElementType#TEXT}
+ * kompiliertes {@link java.util.regex.Pattern} oder eine aus mehreren {@link ConfigElementType#COUNT} Werten
+ * berechnete Größe. Der Wert wird beim ersten {@link #get()} berechnet und zwischengespeichert. Ändert sich eines
+ * der Elemente, von denen er abhängt, wird er nur als veraltet markiert und erst beim nächsten {@link #get()}
+ * neu berechnet.
+ *
+ * @param <T> Der Typ des abgeleiteten Wertes
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#derive(Supplier, String...)
+ */
+public final class ConfigDerived<T> implements Supplier<T>, AutoCloseable {
+
+    private final ConfigManager manager;
+    private final Supplier<T> function;
+    private final List<String> keys;
+
+    /**
+     * Wird bei jeder Änderung einer Abhängigkeit erhöht.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Der Stand von {@link #invalidations}, zu dem {@link #value} berechnet wurde, oder {@code -1}.
+     */
+    private volatile long computed = -1;
+    private volatile T value;
+
+    ConfigDerived(ConfigManager manager, Supplier<T> function, String[] keys) {
+        this.manager = manager;
+        this.function = function;
+        this.keys = Collections.unmodifiableList(Arrays.asList(keys.clone()));
+    }
+
+    /**
+     * @return Die {@link ConfigElement#name() Namen} der Elemente, von denen der Wert abhängt
+     */
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return Ob der zwischengespeicherte Wert aktuell ist
+     */
+    public boolean isValid() {
+        return this.computed == this.invalidations.get();
+    }
+
+    /**
+     * Markiert den Wert als veraltet.
+     */
+    void invalidate() {
+        this.invalidations.incrementAndGet();
+    }
+
+    /**
+     * @return Der abgeleitete Wert. Wird nur neu berechnet, wenn sich seit der letzten Berechnung eine
+     * Abhängigkeit geändert hat.
+     */
+    @Override
+    public T get() {
+        long current = this.invalidations.get();
+        if (this.computed == current)
+            return this.value;
+
+        synchronized (this) {
+            current = this.invalidations.get();
+            if (this.computed != current) {
+                // Ändert sich eine Abhängigkeit während der Berechnung, bleibt der Wert veraltet
+                this.value = this.function.get();
+                this.computed = current;
+            }
+            return this.value;
+        }
+    }
+
+    /**
+     * Entfernt den Wert aus dem Abhängigkeitsgraphen des {@link ConfigManager Konfigurations-Managers}. Danach
+     * wird er bei Änderungen nicht mehr als veraltet markiert.
+     */
+    @Override
+    public void close() {
+        this.manager.release(this);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * ConfigManager
+ * ConfigDescriptor.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import java.lang.reflect.Field;
+
+/**
+ * Die unveränderliche Beschreibung eines beim {@link ConfigManager Konfigurations-Manager} registrierten
+ * {@link ConfigElement Konfigurationselements}. Sie wird einmalig bei der Registrierung erstellt, sodass
+ * die Annotation nicht bei jedem Zugriff erneut ausgelesen werden muss.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public final class ConfigDescriptor {
+
+    private final int index;
+    private final Field field;
+    private final String name, defaultValue, description, location;
+    private final ConfigElementType type;
+    private final boolean visible;
+
+    /**
+     * Die zusammengestellten Prüfungen des Elements. Diese werden bei jeder Registrierung neuer Grenzen
+     * oder Optionen ersetzt.
+     */
+    private volatile ConfigValidator validator = ConfigValidator.NONE;
+
+    /**
+     * Die Ordinalzahl des aktuellen Wertes unter den {@link #getOptions() Optionen} oder {@code -1}.
+     */
+    private volatile int ordinal = -1;
+
+    /**
+     * Die Sperre, unter der der Wert geschrieben und die Änderung mit ihrer Sequenznummer veröffentlicht wird, damit
+     * Feld und Änderungsverlauf in derselben Reihenfolge geändert werden.
+     */
+    private final Object lock = new Object();
+
+    ConfigDescriptor(int index, Field field, ConfigElement element) {
+        this(index, field, element.name(), element.defaultValue(), element.description(), element.location(),
+                element.type(), element.visible());
+    }
+
+    ConfigDescriptor(int index, Field field, String name, String defaultValue, String description, String location,
+                     ConfigElementType type, boolean visible) {
+        this.index = index;
+        this.field = field;
+        this.name = name;
+        this.defaultValue = defaultValue;
+        this.description = description;
+        this.location = location;
+        this.type = type;
+        this.visible = visible;
+    }
+
+    /**
+     * @return Die Position des Elements in der Reihenfolge der Registrierung
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Im Gegensatz zu {@link ConfigManager#getField(String)} ist das Feld auch dann eindeutig, wenn mehrere
+     * Klassen ein gleichnamiges Feld registrieren.
+     *
+     * @return Das Feld, in dem der Wert des Elements gespeichert wird
+     */
+    public Field getField() {
+        return field;
+    }
+
+    ConfigValidator getValidator() {
+        return validator;
+    }
+
+    void setValidator(ConfigValidator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * @return Die registrierten {@link ConfigOptions Optionen} eines Elements vom Typ {@link ConfigElementType#CHOOSE}
+     * oder {@code null}, falls keine registriert sind
+     */
+    ConfigOptions getOptions() {
+        return this.type == ConfigElementType.CHOOSE ? this.validator.getOptions() : null;
+    }
+
+    Object getLock() {
+        return lock;
+    }
+
+    int getOrdinal() {
+        return ordinal;
+    }
+
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * @return Der Name des Java-Feldes, unter dem das Element in Konfigurationsdateien steht
+     */
+    public String getFieldName() {
+        return field.getName();
+    }
+
+    /**
+     * @return {@link ConfigElement#name()}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return {@link ConfigElement#defaultValue()}
+     */
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * @return {@link ConfigElement#description()}
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return {@link ConfigElement#location()}
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * @return {@link ConfigElement#type()}
+     */
+    public ConfigElementType getType() {
+        return type;
+    }
+
+    /**
+     * @return {@link ConfigElement#visible()}
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    @Override
+    public String toString() {
+        return this.name + "(" + this.type + ")";
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * ConfigManager
+ * ConfigElementType.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Die möglichen Typen die ein Konfigurationselement haben kann.
+ *
+ * @author Juhu1705
+ * @version 1.0
+ */
+public enum ConfigElementType {
+    /**
+     * Für Eigenschaften mit einer Liste aus möglichen Werten
+     * <p>
+     * Die angesprochene Liste muss via {@link ConfigManager#registerOptionParameters(String, String...)} gesetzt werden, ansonsten wird dieser Wert nicht in der über {@code de.noisruker.config.fx.ConfigView} generierten GUI angezeigt.
+     */
+    CHOOSE("choose"),
+    /**
+     * Für wahr/falsch Eigenschaften
+     */
+    CHECK("check"),
+    /**
+     * Für integer Zahlenwerte
+     * <p>
+     * Über die Methode {@link ConfigManager#registerIntegerRange(String, int, int)} oder die Methoden: {@link ConfigManager#registerIntegerMax(String, int)}, {@link ConfigManager#registerIntegerMin(String, int)}, können die maximale und minimale Größe des Wertes gesetzt werden.
+     */
+    COUNT("count"),
+    /**
+     * Für einfachen Text
+     */
+    TEXT("text"),
+    /**
+     * Für long Zahlenwerte
+     */
+    LONG("long"),
+    /**
+     * Für Gleitkommazahlen vom Typ double
+     */
+    DOUBLE("double"),
+    /**
+     * Für Konstanten einer Enumeration. Die Enumeration wird über den Typ des Feldes bestimmt, in
+     * Konfigurationsdateien steht der {@link Enum#name() Name} der Konstante.
+     */
+    ENUM("enum"),
+    /**
+     * Für Zeitspannen vom Typ {@link Duration}. In Konfigurationsdateien steht die Zeitspanne im ISO-8601
+     * Format, zum Beispiel {@code PT30S}, oder als ganze Zahl in Millisekunden.
+     */
+    DURATION("duration"),
+    /**
+     * Für Listen aus Texten vom Typ {@link List}. In Konfigurationsdateien werden die Einträge durch Kommas getrennt
+     * und von Leerzeichen am Rand befreit. Einträge, die Kommas, Anführungszeichen oder Leerzeichen am Rand enthalten
+     * oder leer sind, stehen in Anführungszeichen, in denen {@code \"} und {@code \\} für {@code "} und
+     * {@code \} stehen, zum Beispiel {@code a, "b, c", " d"}.
+     */
+    LIST("list");
+
+    private final String typeName;
+
+    ConfigElementType(String typeName) {
+        this.typeName = typeName;
+    }
+
+    /**
+     * @return The name of the ElementType
+     */
+    public String getTypeName() {
+        return this.typeName;
+    }
+
+    /**
+     * Wandelt den Text eines Konfigurationswertes in den zu diesem Typ passenden Wert um. Das Ergebnis ist
+     * der Wert, der im Feld des Elements gespeichert wird.
+     *
+     * @param value Der Wert als Text
+     * @param fieldType Der Typ des Feldes, wird nur für {@link #ENUM} benötigt
+     * @return Der umgewandelte Wert oder {@code null}, wenn {@code value} {@code null} ist
+     * @throws IllegalArgumentException Sollte der Text nicht in einen Wert dieses Typs umgewandelt werden können
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Object parse(String value, Class<?> fieldType) {
+        if (value == null)
+            return null;
+        switch (this) {
+            case CHECK:
+                return Boolean.parseBoolean(value);
+            case COUNT:
+                return Integer.parseInt(value);
+            case LONG:
+                return Long.parseLong(value);
+            case DOUBLE:
+                return Double.parseDouble(value);
+            case ENUM:
+                if (fieldType == null || !fieldType.isEnum())
+                    throw new IllegalArgumentException("No enum type given for value " + value);
+                return Enum.valueOf((Class<? extends Enum>) fieldType, value);
+            case DURATION:
+                try {
+                    return value.startsWith("P") || value.startsWith("-P") ? Duration.parse(value) : Duration.ofMillis(Long.parseLong(value));
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Not a duration: " + value, e);
+                }
+            case LIST:
+                return parseList(value);
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Wandelt einen Wert dieses Typs in seine Textdarstellung um, die über {@link #parse(String, Class)}
+     * wieder eingelesen werden kann.
+     *
+     * @param value Der Wert
+     * @return Der Wert als Text oder {@code null}, wenn {@code value} {@code null} ist
+     */
+    public String format(Object value) {
+        if (value == null)
+            return null;
+        if (this == LIST && value instanceof List) {
+            StringBuilder sb = new StringBuilder();
+            boolean first = true;
+            for (Object entry : (List<?>) value) {
+                if (!first)
+                    sb.append(',');
+                appendListEntry(sb, String.valueOf(entry));
+                first = false;
+            }
+            return sb.toString();
+        }
+        if (this == ENUM && value instanceof Enum)
+            return ((Enum<?>) value).name();
+        return String.valueOf(value);
+    }
+
+    /**
+     * @return Die Klasse der Werte dieses Typs, für {@link #ENUM} die Oberklasse {@link Enum}
+     */
+    public Class<?> getValueType() {
+        switch (this) {
+            case CHECK:
+                return Boolean.class;
+            case COUNT:
+                return Integer.class;
+            case LONG:
+                return Long.class;
+            case DOUBLE:
+                return Double.class;
+            case ENUM:
+                return Enum.class;
+            case DURATION:
+                return Duration.class;
+            case LIST:
+                return List.class;
+            default:
+                return String.class;
+        }
+    }
+
+    /**
+     * Liest eine Liste im Format von {@link #LIST}.
+     *
+     * @throws IllegalArgumentException Sollte ein Eintrag in Anführungszeichen nicht korrekt beendet sein
+     */
+    private static List<String> parseList(String value) {
+        if (value.isEmpty())
+            return Collections.emptyList();
+
+        List<String> list = new ArrayList<>();
+        int i = 0, n = value.length();
+        while (true) {
+            while (i < n && value.charAt(i) <= ' ')
+                i++;
+            if (i < n && value.charAt(i) == '"') {
+                StringBuilder sb = new StringBuilder();
+                for (i++; ; i++) {
+                    if (i >= n)
+                        throw new IllegalArgumentException("Unterminated quote in list: " + value);
+                    char c = value.charAt(i);
+                    if (c == '"')
+                        break;
+                    if (c == '\\' && i + 1 < n)
+                        c = value.charAt(++i);
+                    sb.append(c);
+                }
+                i++;
+                while (i < n && value.charAt(i) <= ' ')
+                    i++;
+                if (i < n && value.charAt(i) != ',')
+                    throw new IllegalArgumentException("Unexpected character after quoted list entry at " + i + ": " + value);
+                list.add(sb.toString());
+            } else {
+                int end = value.indexOf(',', i);
+                if (end < 0)
+                    end = n;
+                list.add(value.substring(i, end).trim());
+                i = end;
+            }
+            if (i >= n)
+                return Collections.unmodifiableList(list);
+            i++;
+        }
+    }
+
+    /**
+     * Hängt einen Eintrag einer Liste an, bei Bedarf in Anführungszeichen, sodass {@link #parseList(String)}
+     * ihn unverändert zurückgibt.
+     */
+    private static void appendListEntry(StringBuilder sb, String entry) {
+        boolean quote = entry.isEmpty() || entry.charAt(0) <= ' ' || entry.charAt(entry.length() - 1) <= ' '
+                || entry.indexOf(',') >= 0 || entry.indexOf('"') >= 0;
+        if (!quote) {
+            sb.append(entry);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            if (c == '"' || c == '\\')
+                sb.append('\\');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    /**
+     * @return {@link ConfigElementType#getTypeName()}
+     */
+    @Override
+    public String toString() {
+        return this.getTypeName();
+    }
+}
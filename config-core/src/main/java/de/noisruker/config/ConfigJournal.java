@@ -0,0 +1,338 @@
+/*
+ * ConfigManager
+ * ConfigJournal.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import org.xml.sax.SAXException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Ein Journal, in das jede Änderung eines Konfigurationselements als kleiner Eintrag aus Sequenznummer, Feldname,
+ * {@link ConfigElementType#getTypeName() Typ} und Wert angehängt wird, anstatt bei jeder Änderung die gesamte
+ * Konfigurationsdatei neu zu schreiben.
+ * <p>
+ * Die mit {@link ConfigManager#save(File)} geschriebene Datei dient als Sicherungspunkt. Überschreitet das Journal
+ * die festgelegte Größe oder das festgelegte Alter, schreibt ein Hintergrund-Thread einen neuen Sicherungspunkt und
+ * beginnt ein leeres Journal. Beim Öffnen über {@link ConfigManager#openJournal(File, long, Duration)} wird zuerst
+ * der Sicherungspunkt geladen und dann das Journal erneut abgespielt.
+ * <p>
+ * Das Journal liegt neben dem Sicherungspunkt unter dessen Namen mit der Endung {@code .journal}.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#openJournal(File, long, Duration)
+ */
+public final class ConfigJournal implements Closeable {
+
+    private final ConfigManager manager;
+    private final File checkpoint;
+    private final Path journal, previous;
+    private final long maxBytes;
+    private final long maxAge;
+    private final ScheduledExecutorService compactor;
+
+    private DataOutputStream out;
+    private long base;
+    private long firstAppend;
+    private volatile boolean replaying;
+    private boolean closed;
+
+    /**
+     * Ob bereits ein Sicherungspunkt wegen der Größe des Journals angestoßen wurde, der noch nicht begonnen hat.
+     */
+    private boolean compactionPending;
+
+    ConfigJournal(ConfigManager manager, File checkpoint, long maxBytes, Duration maxAge) {
+        this.manager = manager;
+        this.checkpoint = checkpoint;
+        this.journal = checkpoint.toPath().resolveSibling(checkpoint.getName() + ".journal");
+        this.previous = checkpoint.toPath().resolveSibling(checkpoint.getName() + ".journal.old");
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge.toNanos();
+        this.compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ConfigJournal-Compactor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Lädt den Sicherungspunkt, spielt das Journal erneut ab und startet den Hintergrund-Thread.
+     *
+     * @return Die höchste abgespielte Sequenznummer
+     */
+    long recover() throws IOException {
+        long seq = 0;
+        this.replaying = true;
+        try {
+            if (this.checkpoint.isFile())
+                this.manager.load(this.checkpoint.getPath());
+            seq = Math.max(seq, this.replay(this.previous));
+            seq = Math.max(seq, this.replay(this.journal));
+        } catch (SAXException e) {
+            throw new IOException(e);
+        } finally {
+            this.replaying = false;
+        }
+
+        synchronized (this) {
+            this.open();
+        }
+        // Die Größe wird beim Anhängen geprüft, der Zeitgeber ist nur für das Alter zuständig
+        long period = Math.max(TimeUnit.NANOSECONDS.toMillis(this.maxAge) / 4, 100);
+        this.compactor.scheduleWithFixedDelay(this::compactIfNeeded, period, period, TimeUnit.MILLISECONDS);
+        return seq;
+    }
+
+    /**
+     * Spielt die vollständigen Einträge der Datei ab. Ein unvollständiger oder unlesbarer Rest am Ende wird
+     * abgeschnitten, damit spätere Einträge nicht hinter ihm angehängt werden.
+     *
+     * @return Die höchste abgespielte Sequenznummer
+     */
+    private long replay(Path file) throws IOException {
+        if (!Files.isRegularFile(file))
+            return 0;
+
+        long size = Files.size(file);
+        long seq = 0;
+        long complete = 0;
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        try (DataInputStream in = new DataInputStream(counter)) {
+            while (true) {
+                long s;
+                String fieldName, value;
+                try {
+                    s = in.readLong();
+                    fieldName = in.readUTF();
+                    in.readUTF();
+                    int length = in.readInt();
+                    if (length < -1 || length > size - counter.count)
+                        break;
+                    if (length < 0) {
+                        value = null;
+                    } else {
+                        byte[] bytes = new byte[length];
+                        in.readFully(bytes);
+                        value = new String(bytes, StandardCharsets.UTF_8);
+                    }
+                } catch (EOFException | UTFDataFormatException e) {
+                    // Ein unvollständiger letzter Eintrag stammt von einem Abbruch beim Schreiben
+                    break;
+                }
+                complete = counter.count;
+                seq = s;
+                ConfigDescriptor d = this.manager.getDescriptorByFieldName(fieldName);
+                if (d != null && value != null)
+                    this.manager.applyValue(d, value);
+            }
+        }
+
+        if (complete < size) {
+            LOGGER.log(Level.WARNING, "Unvollständiges Ende von " + file + " ab Byte " + complete + " wird verworfen");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+            }
+        }
+        return seq;
+    }
+
+    /**
+     * Zählt die gelesenen Bytes, um das Ende des letzten vollständigen Eintrags zu kennen.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                this.count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0)
+                this.count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            this.count += skipped;
+            return skipped;
+        }
+    }
+
+    private void open() throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.journal.toFile(), true)));
+        this.base = Files.size(this.journal);
+        this.firstAppend = this.base == 0 ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Hängt eine Änderung an das Journal an. Während des Abspielens beim Öffnen werden keine Einträge geschrieben.
+     *
+     * @param seq Die Sequenznummer der Änderung
+     * @param d Die Beschreibung des geänderten Elements
+     * @param value Der neue Wert als Text
+     */
+    synchronized void append(long seq, ConfigDescriptor d, String value) {
+        if (this.replaying || this.closed || this.out == null)
+            return;
+
+        try {
+            this.out.writeLong(seq);
+            this.out.writeUTF(d.getFieldName());
+            this.out.writeUTF(d.getType().getTypeName());
+            if (value == null) {
+                this.out.writeInt(-1);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                this.out.writeInt(bytes.length);
+                this.out.write(bytes);
+            }
+            this.out.flush();
+            if (this.firstAppend == 0)
+                this.firstAppend = System.nanoTime();
+            if (!this.compactionPending && this.getSize() >= this.maxBytes) {
+                this.compactionPending = true;
+                this.compactor.execute(this::compactIfNeeded);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Konnte die Änderung von " + d.getName() + " nicht in das Journal schreiben!", e);
+        }
+    }
+
+    /**
+     * @return Die Größe des Journals in Bytes
+     */
+    public synchronized long getSize() {
+        return this.out == null ? 0 : this.base + this.out.size();
+    }
+
+    private void compactIfNeeded() {
+        boolean due;
+        synchronized (this) {
+            this.compactionPending = false;
+            long size = this.getSize();
+            due = !this.closed && size > 0
+                    && (size >= this.maxBytes || System.nanoTime() - this.firstAppend >= this.maxAge);
+        }
+        if (due) {
+            try {
+                this.compact();
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Fehler beim Schreiben des Sicherungspunkts!", e);
+            }
+        }
+    }
+
+    /**
+     * Schreibt einen neuen Sicherungspunkt und beginnt ein leeres Journal. Das bisherige Journal wird dazu
+     * zuerst beiseitegelegt, sodass Änderungen während des Schreibens in das neue Journal gehen. Der
+     * Sicherungspunkt wird in eine temporäre Datei geschrieben und dann ersetzt. Erst danach wird das alte
+     * Journal gelöscht.
+     *
+     * @throws IOException Sollte der Sicherungspunkt nicht geschrieben werden können
+     */
+    public void compact() throws IOException {
+        synchronized (this) {
+            if (this.closed)
+                return;
+            this.out.close();
+            if (!Files.exists(this.previous))
+                Files.move(this.journal, this.previous);
+            else
+                appendTo(this.journal, this.previous);
+            this.open();
+        }
+
+        Path target = this.checkpoint.toPath();
+        // Die Endung bleibt erhalten, damit das gleiche Format gewählt wird
+        Path temp = target.resolveSibling("tmp-" + target.getFileName());
+        this.manager.save(temp.toFile());
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.deleteIfExists(this.previous);
+    }
+
+    private static void appendTo(Path source, Path target) throws IOException {
+        // Ein früherer Sicherungspunkt ist fehlgeschlagen, beide Journale müssen erhalten bleiben
+        try (FileOutputStream out = new FileOutputStream(target.toFile(), true)) {
+            Files.copy(source, out);
+        }
+        Files.delete(source);
+    }
+
+    /**
+     * Beendet den Hintergrund-Thread und schließt das Journal. Weitere Änderungen werden nicht mehr aufgezeichnet.
+     *
+     * @throws IOException Sollte das Journal nicht geschlossen werden können
+     */
+    @Override
+    public void close() throws IOException {
+        this.compactor.shutdownNow();
+        synchronized (this) {
+            if (this.closed)
+                return;
+            this.closed = true;
+            if (this.out != null)
+                this.out.close();
+        }
+        this.manager.closeJournal(this);
+    }
+}
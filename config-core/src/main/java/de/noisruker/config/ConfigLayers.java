@@ -0,0 +1,272 @@
+/*
+ * ConfigManager
+ * ConfigLayers.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Ein Stapel aus {@link ConfigSource Quellen}, aus denen sich die Werte der Konfigurationselemente
+ * zusammensetzen. Für jedes Element gilt der Wert der obersten Ebene, die einen Wert für das Element
+ * kennt. Die unterste Ebene bildet immer der Standardwert eines Elements. Das ist der Wert, den das
+ * Feld beim ersten Auflösen hatte, oder, falls dieser {@code null} war,
+ * {@link ConfigElement#defaultValue() der Standardwert der Annotation}.
+ * <p>
+ * Eine übliche Reihenfolge ist:
+ * <pre>{@code
+ * ConfigLayers layers = ConfigManager.getInstance().getLayers();
+ * layers.addLayer(ConfigSource.file(path));
+ * layers.addLayer(ConfigSource.environment("CONFIG_"));
+ * layers.addLayer(ConfigSource.systemProperties("config."));
+ * layers.addLayer(ConfigSource.commandLine(args));
+ * }</pre>
+ * <p>
+ * Die aufgelösten Werte werden zwischengespeichert. Weicht der aufgelöste Wert eines Elements vom Feld
+ * ab, wird er wie über {@link ConfigManager#trySet(String, Object)} geprüft, in das Feld geschrieben und
+ * an alle Zuhörer verteilt. Ein ungültiger oder verbotener Wert wird verworfen und das Feld behält seinen Wert. Nach der Änderung einer einzelnen
+ * Ebene werden über {@link #refresh(String, String...)} nur die betroffenen Elemente neu aufgelöst.
+ * <p>
+ * Die Werte werden unter der Sperre dieses Objekts aufgelöst, aber erst nach deren Freigabe in die Felder
+ * geschrieben. Zuhörer der Änderungen dürfen daher selbst Ebenen hinzufügen oder {@link #refresh(String, String...)}
+ * aufrufen.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#getLayers()
+ */
+public final class ConfigLayers {
+
+    /**
+     * Der Name der untersten Ebene mit den Standardwerten.
+     */
+    public static final String DEFAULTS = "defaults";
+
+    private final ConfigManager manager;
+
+    /**
+     * Die Ebenen, beginnend mit der niedrigsten Priorität.
+     */
+    private final CopyOnWriteArrayList<ConfigSource> layers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Die aufgelösten Werte, zugeordnet zum {@link ConfigElement#name() Namen} der Elemente.
+     */
+    private final ConcurrentHashMap<String, Resolved> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Die Standardwerte, zugeordnet zum {@link ConfigElement#name() Namen} der Elemente.
+     */
+    private final ConcurrentHashMap<String, String> defaults = new ConcurrentHashMap<>();
+
+    ConfigLayers(ConfigManager manager) {
+        this.manager = manager;
+        this.layers.add(new SimpleConfigSource(DEFAULTS, d -> this.defaults.get(d.getName())));
+    }
+
+    /**
+     * Legt eine Ebene oben auf den Stapel. Existiert bereits eine Ebene mit gleichem
+     * {@link ConfigSource#getName() Namen}, wird diese an ihrer Position ersetzt. Anschließend werden alle
+     * Elemente neu aufgelöst.
+     *
+     * @param source Die neue Ebene
+     */
+    public void addLayer(ConfigSource source) {
+        if (DEFAULTS.equals(source.getName()))
+            throw new IllegalArgumentException("The layer name " + DEFAULTS + " is reserved");
+
+        List<ConfigDescriptor> changed;
+        synchronized (this) {
+            int index = this.indexOf(source.getName());
+            if (index < 0)
+                this.layers.add(source);
+            else
+                this.layers.set(index, source);
+
+            changed = this.resolveAll();
+        }
+        this.apply(changed);
+    }
+
+    /**
+     * Entfernt eine Ebene und löst anschließend alle Elemente neu auf.
+     *
+     * @param name Der Name der Ebene
+     * @return Ob eine Ebene entfernt wurde
+     */
+    public boolean removeLayer(String name) {
+        List<ConfigDescriptor> changed;
+        synchronized (this) {
+            int index = this.indexOf(name);
+            if (index <= 0)
+                return false;
+
+            this.layers.remove(index);
+            changed = this.resolveAll();
+        }
+        this.apply(changed);
+        return true;
+    }
+
+    /**
+     * Löst die übergebenen Elemente neu auf, nachdem sich die Werte einer Ebene geändert haben. Alle
+     * anderen Elemente behalten ihren zwischengespeicherten Wert. Werden keine Namen übergeben, werden
+     * alle Elemente neu aufgelöst.
+     *
+     * @param layer Der Name der geänderten Ebene
+     * @param names Die {@link ConfigElement#name() Namen} der geänderten Elemente
+     */
+    public void refresh(String layer, String... names) {
+        List<ConfigDescriptor> changed;
+        synchronized (this) {
+            if (this.indexOf(layer) < 0)
+                throw new IllegalArgumentException("Unknown config layer: " + layer);
+
+            if (names.length == 0) {
+                changed = this.resolveAll();
+            } else {
+                changed = new ArrayList<>(names.length);
+                for (String name : names) {
+                    ConfigDescriptor d = this.manager.getDescriptor(name);
+                    if (d != null)
+                        changed.add(d);
+                }
+                for (ConfigDescriptor d : changed)
+                    this.resolve(d);
+            }
+        }
+        this.apply(changed);
+    }
+
+    /**
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @return Der aufgelöste Wert des Elements oder {@code null}, falls keines vorhanden
+     */
+    public String get(String name) {
+        Resolved r = this.resolved.get(name);
+        if (r == null) {
+            ConfigDescriptor d = this.manager.getDescriptor(name);
+            if (d == null)
+                return null;
+            synchronized (this) {
+                r = this.resolve(d);
+            }
+            this.apply(Collections.singletonList(d));
+        }
+        return r.value;
+    }
+
+    /**
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @return Der Name der Ebene, aus der der Wert des Elements stammt, oder {@code null}, falls das Element noch nicht aufgelöst wurde
+     */
+    public String getOrigin(String name) {
+        Resolved r = this.resolved.get(name);
+        return r == null ? null : r.origin;
+    }
+
+    /**
+     * @return Die Namen aller Ebenen, beginnend mit der niedrigsten Priorität
+     */
+    public List<String> getLayerNames() {
+        List<String> names = new ArrayList<>();
+        for (ConfigSource source : this.layers)
+            names.add(source.getName());
+        return names;
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < this.layers.size(); i++)
+            if (this.layers.get(i).getName().equals(name))
+                return i;
+        return -1;
+    }
+
+    /**
+     * @return Die aufgelösten Elemente, deren Werte anschließend über {@link #apply(List)} übernommen werden
+     */
+    private List<ConfigDescriptor> resolveAll() {
+        List<ConfigDescriptor> descriptors = this.manager.getDescriptors();
+        for (ConfigDescriptor d : descriptors)
+            this.resolve(d);
+        return descriptors;
+    }
+
+    /**
+     * Schreibt die aufgelösten Werte der Elemente in deren Felder. Darf nicht unter der Sperre dieses Objekts
+     * aufgerufen werden, da die Zuhörer der Änderungen im gleichen Thread laufen. Es wird jeweils der zuletzt
+     * aufgelöste Wert übernommen, sodass ein gleichzeitiges Auflösen keinen neueren Wert überschreibt.
+     */
+    private void apply(List<ConfigDescriptor> descriptors) {
+        for (ConfigDescriptor d : descriptors) {
+            Resolved r = this.resolved.get(d.getName());
+            if (r == null || r.value == null || r.value.equals(currentValue(d)))
+                continue;
+            String message = this.manager.change(d.getName(), r.value);
+            if (message != null)
+                LOGGER.log(Level.WARNING, "Der Wert " + r.value + " aus der Ebene " + r.origin + " wurde verworfen: " + message);
+        }
+    }
+
+    private Resolved resolve(ConfigDescriptor d) {
+        // Der Standardwert muss gelesen werden, bevor eine höhere Ebene das Feld überschreibt
+        this.defaults.computeIfAbsent(d.getName(), k -> {
+            String current = currentValue(d);
+            return current == null ? d.getDefaultValue() : current;
+        });
+
+        Resolved r = null;
+        for (int i = this.layers.size() - 1; i >= 0 && r == null; i--) {
+            ConfigSource source = this.layers.get(i);
+            String value = source.get(d);
+            if (value != null)
+                r = new Resolved(value, source.getName());
+        }
+        if (r == null)
+            r = new Resolved(null, null);
+
+        this.resolved.put(d.getName(), r);
+        return r;
+    }
+
+    private static String currentValue(ConfigDescriptor d) {
+        try {
+            Object value = d.getField().get(null);
+            return value == null ? null : d.getType().format(value);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Konnte den Wert von " + d.getName() + " nicht lesen!", e);
+            return null;
+        }
+    }
+
+    private static final class Resolved {
+        private final String value, origin;
+
+        private Resolved(String value, String origin) {
+            this.value = value;
+            this.origin = origin;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * ConfigManager
+ * ConfigLazyLoader.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.noisruker.config;
+
+import de.noisruker.config.codec.ConfigCodecs;
+import de.noisruker.config.codec.XmlConfigCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Lädt aus einer Konfigurationsdatei im XML-Format nur die Einträge der registrierten Elemente, anstatt sie beim
+ * Öffnen vollständig einzulesen.
+ * <p>
+ * Beim Öffnen wird ein Index aufgebaut, der jedem Eintrag der Datei seinen Bereich an Bytes zuordnet. Der Index wird
+ * neben der Datei unter deren Namen mit der Endung {@code .idx} gespeichert und zusammen mit der Größe und dem
+ * Änderungszeitpunkt der Datei abgelegt. Stimmen diese beim nächsten Öffnen noch überein, wird der Index
+ * wiederverwendet, sonst wird er neu aufgebaut. Gelesen wird über eine in den Speicher abgebildete Ansicht der Datei.
+ * <p>
+ * Beim Öffnen werden die Einträge aller bereits registrierten Elemente eingelesen, die übrigen erst, sobald ihr
+ * Element {@link ConfigManager#register(Class) registriert} wird. Damit stimmen die statischen Felder jedes
+ * registrierten Elements immer mit der Datei überein, auch wenn sie direkt ausgelesen werden. Einträge, deren
+ * Elemente nie registriert werden, zum Beispiel die eines nicht geladenen Moduls, werden nie umgewandelt.
+ * <p>
+ * Das Einlesen eines Eintrags gilt wie ein Startwert des Feldes und nicht als Änderung. Es werden also weder
+ * Zuhörer benachrichtigt noch Einträge in Journal oder {@link ConfigChangeFeed Änderungsverlauf} erzeugt.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#loadLazy(String)
+ */
+public final class ConfigLazyLoader implements Closeable {
+
+    /**
+     * Kennzeichnet eine Index-Datei im hier beschriebenen Aufbau.
+     */
+    private static final int MAGIC = 0x43494458;
+
+    private static final byte[] FIELD_START = bytes("<field>");
+    private static final byte[] FIELD_END = bytes("</field>");
+    private static final byte[] NAME_START = bytes("<name>");
+    private static final byte[] NAME_END = bytes("</name>");
+
+    private static final byte[] PREFIX = bytes("<config><fields>");
+    private static final byte[] SUFFIX = bytes("</fields></config>");
+
+    private final ConfigManager manager;
+    private final Path file;
+    private final Path indexFile;
+    private final FileChannel channel;
+    private final MappedByteBuffer view;
+
+    /**
+     * Die Bereiche aller Einträge der Datei, die noch nicht eingelesen wurden, nach Feldnamen.
+     */
+    private final Map<String, long[]> pending = new ConcurrentHashMap<>();
+
+    private final boolean indexReused;
+
+    private ConfigLazyLoader(ConfigManager manager, Path file) throws IOException {
+        this.manager = manager;
+        this.file = file;
+        this.indexFile = file.resolveSibling(file.getFileName() + ".idx");
+
+        long size = Files.size(file);
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Config file too large to be mapped: " + file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.view = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            Map<String, long[]> index = this.readIndex(size, modified);
+            this.indexReused = index != null;
+            if (index == null) {
+                index = this.scan();
+                this.writeIndex(index, size, modified);
+            }
+            this.pending.putAll(index);
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Öffnet die Datei {@code input} und baut den Index auf oder liest ihn ein.
+     *
+     * @param manager Der Manager, dessen Elemente gesetzt werden
+     * @param input Der Pfad zu der Datei
+     * @return Die geöffnete Datei
+     * @throws IOException Sollte die Datei nicht im XML-Format vorliegen oder nicht gelesen werden können
+     */
+    static ConfigLazyLoader open(ConfigManager manager, String input) throws IOException {
+        if (!(ConfigCodecs.forFile(input) instanceof XmlConfigCodec))
+            throw new IOException("Lazy loading is only supported for the XML format: " + input);
+        return new ConfigLazyLoader(manager, Path.of(input));
+    }
+
+    /**
+     * @param file Eine Konfigurationsdatei
+     * @return Ob dies die verzögert geladene Datei ist
+     */
+    boolean covers(File file) {
+        return this.file.toAbsolutePath().normalize().equals(file.toPath().toAbsolutePath().normalize());
+    }
+
+    /**
+     * @return Ob ein vorhandener Index wiederverwendet wurde, anstatt die Datei zu durchsuchen
+     */
+    public boolean isIndexReused() {
+        return this.indexReused;
+    }
+
+    /**
+     * @return Die Anzahl der Einträge, die noch nicht eingelesen wurden
+     */
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    /**
+     * Liest den Eintrag des Elements ein, falls dieser noch aussteht. Wird bei der Registrierung des Elements aufgerufen.
+     *
+     * @param d Die Beschreibung des Elements
+     */
+    void ensureLoaded(ConfigDescriptor d) {
+        if (!this.pending.containsKey(d.getFieldName()))
+            return;
+        synchronized (this) {
+            long[] range = this.pending.remove(d.getFieldName());
+            if (range != null)
+                this.parse(Collections.singletonList(range));
+        }
+    }
+
+    /**
+     * Liest alle ausstehenden Einträge registrierter Elemente ein.
+     *
+     * @return Die Anzahl der eingelesenen Einträge
+     */
+    public synchronized int loadAll() {
+        List<long[]> ranges = new ArrayList<>();
+        for (ConfigDescriptor d : this.manager.getDescriptors()) {
+            long[] range = this.pending.remove(d.getFieldName());
+            if (range != null)
+                ranges.add(range);
+        }
+        this.parse(ranges);
+        return ranges.size();
+    }
+
+    /**
+     * Liest die Bereiche aus der abgebildeten Datei und setzt die darin enthaltenen Werte. Die Bereiche werden
+     * dazu wieder in die umschließenden Elemente {@code config} und {@code fields} eingebettet.
+     */
+    private void parse(List<long[]> ranges) {
+        if (ranges.isEmpty())
+            return;
+        long start = System.nanoTime();
+        long bytes = 0;
+
+        List<InputStream> parts = new ArrayList<>(ranges.size() + 2);
+        parts.add(new ByteArrayInputStream(PREFIX));
+        for (long[] range : ranges) {
+            byte[] section = new byte[(int) range[1]];
+            this.view.duplicate().position((int) range[0]).get(section);
+            parts.add(new ByteArrayInputStream(section));
+            bytes += section.length;
+        }
+        parts.add(new ByteArrayInputStream(SUFFIX));
+
+        try (InputStream in = new SequenceInputStream(Collections.enumeration(parts))) {
+            new XmlConfigCodec().read(in, (name, value) -> {
+                ConfigDescriptor d = this.manager.getDescriptorByFieldName(name);
+                if (d != null)
+                    this.manager.restoreValue(d, value);
+            });
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Konnte Abschnitte aus " + this.file + " nicht einlesen!", e);
+        }
+
+        this.manager.getMetrics().recordLoad(System.nanoTime() - start, bytes);
+    }
+
+    /**
+     * Durchsucht die abgebildete Datei nach den Elementen {@code field} und merkt sich deren Bereich unter dem
+     * enthaltenen {@code name}.
+     */
+    private Map<String, long[]> scan() {
+        Map<String, long[]> index = new LinkedHashMap<>();
+        int limit = this.view.limit();
+        int position = 0;
+        while ((position = indexOf(this.view, FIELD_START, position, limit)) >= 0) {
+            int end = indexOf(this.view, FIELD_END, position, limit);
+            if (end < 0)
+                break;
+            end += FIELD_END.length;
+
+            int nameStart = indexOf(this.view, NAME_START, position, end);
+            int nameEnd = nameStart < 0 ? -1 : indexOf(this.view, NAME_END, nameStart, end);
+            if (nameEnd >= 0) {
+                nameStart += NAME_START.length;
+                byte[] name = new byte[nameEnd - nameStart];
+                this.view.duplicate().position(nameStart).get(name);
+                index.put(unescape(new String(name, StandardCharsets.UTF_8).trim()), new long[]{position, end - position});
+            }
+            position = end;
+        }
+        return index;
+    }
+
+    /**
+     * @return Den gespeicherten Index, oder {@code null}, falls keiner vorhanden ist oder er nicht zu der Datei passt
+     */
+    private Map<String, long[]> readIndex(long size, long modified) {
+        if (!Files.isRegularFile(this.indexFile))
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.indexFile)))) {
+            if (in.readInt() != MAGIC || in.readLong() != size || in.readLong() != modified)
+                return null;
+            int count = in.readInt();
+            Map<String, long[]> index = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long offset = in.readLong();
+                long length = in.readInt();
+                if (offset < 0 || length < 0 || offset + length > size)
+                    return null;
+                index.put(name, new long[]{offset, length});
+            }
+            return index;
+        } catch (IOException e) {
+            LOGGER.log(Level.INFO, "Index " + this.indexFile + " ist unlesbar und wird neu aufgebaut", e);
+            return null;
+        }
+    }
+
+    private void writeIndex(Map<String, long[]> index, long size, long modified) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(this.indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeInt(index.size());
+            for (Map.Entry<String, long[]> e : index.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue()[0]);
+                out.writeInt((int) e.getValue()[1]);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Konnte den Index " + this.indexFile + " nicht schreiben!", e);
+        }
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, byte[] pattern, int from, int to) {
+        outer:
+        for (int i = from; i <= to - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++)
+                if (buffer.get(i + j) != pattern[j])
+                    continue outer;
+            return i;
+        }
+        return -1;
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('&') < 0)
+            return text;
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Beendet das verzögerte Laden. Noch ausstehende Einträge werden nicht mehr eingelesen.
+     */
+    @Override
+    public void close() throws IOException {
+        this.pending.clear();
+        this.manager.closeLazy(this);
+        this.channel.close();
+    }
+}
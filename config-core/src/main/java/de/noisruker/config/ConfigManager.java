@@ -0,0 +1,1370 @@
+/*
+ * ConfigManager
+ * ConfigManager.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import de.noisruker.config.codec.ConfigCodec;
+import de.noisruker.config.codec.ConfigCodecs;
+import de.noisruker.config.codec.ConfigRecord;
+import de.noisruker.config.event.ConfigChangeAllowedEvent;
+import de.noisruker.config.event.ConfigEntryChangeEvent;
+import de.noisruker.config.event.ConfigValueChangeAllowedEvent;
+import de.noisruker.config.event.ConfigValueChangeEvent;
+import de.noisruker.config.jfr.ConfigChangeEvent;
+import de.noisruker.config.jfr.ConfigLoadDefaultEvent;
+import de.noisruker.config.jfr.ConfigLoadEvent;
+import de.noisruker.config.jfr.ConfigSaveEvent;
+import de.noisruker.config.jfr.ConfigVetoEvent;
+import de.noisruker.event.EventManager;
+import de.noisruker.logger.Settings;
+import org.xml.sax.SAXException;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Hier werden alle {@link ConfigElement Konfigurations Elemente} gespeichert
+ * und verwaltet. Diese Klasse ermöglicht das Laden der initialisierten Werte,
+ * einer Konfigurations-Datei, sowie das Schreiben einer Konfigurations-Datei.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public class ConfigManager {
+
+    /**
+     * Die Instanz des {@link ConfigManager Konfigurations Managers}.
+     */
+    private static volatile ConfigManager instance;
+
+    /**
+     * @return Die {@link #instance aktive Instanz} des Konfigurations-Managers.
+     */
+    public static ConfigManager getInstance() {
+        ConfigManager result = instance;
+        if (result == null) {
+            synchronized (ConfigManager.class) {
+                result = instance;
+                if (result == null)
+                    instance = result = new ConfigManager();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Die {@link ConfigMetrics Kennzahlen} dieses Konfigurations-Managers.
+     */
+    private final ConfigMetrics metrics = new ConfigMetrics();
+
+    /**
+     * @return Die {@link ConfigMetrics Kennzahlen} über Lade-, Speicher- und Änderungsvorgänge.
+     */
+    public ConfigMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Die {@link ConfigLayers Ebenen}, aus denen sich die Werte der Konfigurationselemente zusammensetzen.
+     */
+    private final ConfigLayers layers = new ConfigLayers(this);
+
+    /**
+     * @return Die {@link ConfigLayers Ebenen} aus Standardwerten, Dateien, Umgebungsvariablen,
+     * System-Properties und Kommandozeilenargumenten, aus denen sich die Werte zusammensetzen.
+     */
+    public ConfigLayers getLayers() {
+        return this.layers;
+    }
+
+    /**
+     * Die {@link ConfigShards nach Positionen aufgeteilte Speicherung} der Konfiguration.
+     */
+    private final ConfigShards shards = new ConfigShards(this);
+
+    /**
+     * @return Die {@link ConfigShards Speicherung in einer Datei je oberster Position}, die nur geänderte
+     * Dateien neu schreibt.
+     */
+    public ConfigShards getShards() {
+        return this.shards;
+    }
+
+    /**
+     * Die Sequenznummer der zuletzt übernommenen Änderung.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @return Die Sequenznummer der zuletzt übernommenen Änderung. Jede Änderung eines Elements erhöht sie um eins.
+     */
+    public long getSequence() {
+        return this.sequence.get();
+    }
+
+    /**
+     * Der {@link ConfigChangeFeed Verlauf} der letzten Änderungen.
+     */
+    private final ConfigChangeFeed feed = new ConfigChangeFeed(ConfigChangeFeed.DEFAULT_CAPACITY);
+
+    /**
+     * @return Der {@link ConfigChangeFeed Verlauf} der letzten Änderungen, aus dem Verbraucher die Änderungen
+     * seit einer Sequenznummer abholen können.
+     */
+    public ConfigChangeFeed getChangeFeed() {
+        return this.feed;
+    }
+
+    /**
+     * Die aktiven {@link #subscribe(String...) Abonnements}.
+     */
+    private final CopyOnWriteArrayList<ConfigSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Abonniert die Änderungen der übergebenen Elemente. Die Änderungen werden über den
+     * {@link ForkJoinPool#commonPool()} ausgeliefert.
+     *
+     * @param keys Die {@link ConfigElement#name() Namen} der Elemente, oder keine, um alle Elemente zu abonnieren
+     * @return Ein {@link Flow.Publisher}, dessen Abonnenten nur angeforderte Änderungen erhalten. Noch nicht
+     * ausgelieferte Änderungen eines Elements werden durch neuere ersetzt.
+     * @see #subscribe(Executor, String...)
+     */
+    public Flow.Publisher<ConfigChange> subscribe(String... keys) {
+        return this.subscribe(ForkJoinPool.commonPool(), keys);
+    }
+
+    /**
+     * Abonniert die Änderungen der übergebenen Elemente. Ein Abonnent erhält Änderungen nur im Rahmen der über
+     * {@link Flow.Subscription#request(long)} angeforderten Menge. Ändert sich ein Element mehrfach, bevor seine
+     * Änderung ausgeliefert wurde, erhält der Abonnent nur den neuesten Wert, sodass ein langsamer Abonnent
+     * keine unbegrenzte Warteschlange aufbaut.
+     *
+     * @param executor Der {@link Executor}, über den die Änderungen ausgeliefert werden
+     * @param keys Die {@link ConfigElement#name() Namen} der Elemente, oder keine, um alle Elemente zu abonnieren
+     * @return Ein {@link Flow.Publisher} für die Änderungen
+     */
+    public Flow.Publisher<ConfigChange> subscribe(Executor executor, String... keys) {
+        return subscriber -> {
+            ConfigSubscription subscription = new ConfigSubscription(this, subscriber, keys, executor);
+            this.subscriptions.add(subscription);
+            subscriber.onSubscribe(subscription);
+        };
+    }
+
+    void unsubscribe(ConfigSubscription subscription) {
+        this.subscriptions.remove(subscription);
+    }
+
+    /**
+     * Die {@link #addChangeListener(ConfigChangeListener) Zuhörer}, die bei jeder Änderung synchron aufgerufen werden.
+     */
+    private final CopyOnWriteArrayList<ConfigChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Fügt einen Zuhörer hinzu, der bei jeder übernommenen Änderung im ändernden Thread aufgerufen wird, zum Beispiel
+     * um eine Oberfläche zu aktualisieren. Der Zuhörer wird unter der Sperre des geänderten Elements aufgerufen und
+     * sieht die Änderungen eines Elements daher in der Reihenfolge ihrer Sequenznummern.
+     *
+     * @param listener Der Zuhörer
+     */
+    public void addChangeListener(ConfigChangeListener listener) {
+        this.changeListeners.add(listener);
+    }
+
+    /**
+     * @param listener Der zu entfernende Zuhörer
+     * @return Ob der Zuhörer registriert war
+     */
+    public boolean removeChangeListener(ConfigChangeListener listener) {
+        return this.changeListeners.remove(listener);
+    }
+
+    /**
+     * Die Zuhörer einzelner Elemente nach deren {@link ConfigElement#name() Namen}, getrennt nach Art. Bei einer
+     * Änderung werden nur die Zuhörer des geänderten Elements aufgerufen.
+     */
+    private final ConcurrentHashMap<String, CopyOnWriteArrayList<ConfigChangeListener>> entryChangeListeners = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CopyOnWriteArrayList<ConfigVetoListener>> entryVetoListeners = new ConcurrentHashMap<>();
+
+    /**
+     * Ob Änderungen zusätzlich über den {@link EventManager} an alle Zuhörer verteilt werden.
+     */
+    private volatile boolean broadcast = true;
+
+    /**
+     * Fügt einen Zuhörer hinzu, der nur bei übernommenen Änderungen des Elements {@code name} im ändernden Thread
+     * aufgerufen wird. Anders als beim {@link ConfigEntryChangeEvent} muss der Zuhörer nicht selbst nach dem
+     * Namen filtern.
+     *
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @param listener Der Zuhörer
+     * @throws IllegalArgumentException Sollte das Element nicht existieren
+     */
+    public void addChangeListener(String name, ConfigChangeListener listener) {
+        this.requireDescriptor(name);
+        this.entryChangeListeners.computeIfAbsent(name, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @param listener Der zu entfernende Zuhörer
+     * @return Ob der Zuhörer für dieses Element registriert war
+     */
+    public boolean removeChangeListener(String name, ConfigChangeListener listener) {
+        List<ConfigChangeListener> listeners = this.entryChangeListeners.get(name);
+        return listeners != null && listeners.remove(listener);
+    }
+
+    /**
+     * Fügt einen Zuhörer hinzu, der vor jeder Änderung des Elements {@code name} befragt wird und diese verbieten
+     * kann. Die Zuhörer eines Elements werden vor dem {@link ConfigChangeAllowedEvent} befragt.
+     *
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @param listener Der Zuhörer
+     * @throws IllegalArgumentException Sollte das Element nicht existieren
+     */
+    public void addVetoListener(String name, ConfigVetoListener listener) {
+        this.requireDescriptor(name);
+        this.entryVetoListeners.computeIfAbsent(name, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @param listener Der zu entfernende Zuhörer
+     * @return Ob der Zuhörer für dieses Element registriert war
+     */
+    public boolean removeVetoListener(String name, ConfigVetoListener listener) {
+        List<ConfigVetoListener> listeners = this.entryVetoListeners.get(name);
+        return listeners != null && listeners.remove(listener);
+    }
+
+    /**
+     * Legt fest, ob Änderungen und Anfragen zur Änderung weiterhin als {@link ConfigChangeAllowedEvent},
+     * {@link ConfigValueChangeAllowedEvent}, {@link ConfigEntryChangeEvent} und {@link ConfigValueChangeEvent} über
+     * den {@link EventManager} verteilt werden. Wer ausschließlich Zuhörer einzelner Elemente verwendet, kann dies
+     * abschalten, sodass jede Änderung nur die betroffenen Zuhörer erreicht. Standardmäßig ist es eingeschaltet.
+     *
+     * @param broadcast Ob die Events ausgelöst werden
+     */
+    public void setEventBroadcast(boolean broadcast) {
+        this.broadcast = broadcast;
+    }
+
+    /**
+     * @return Ob Änderungen über den {@link EventManager} verteilt werden
+     */
+    public boolean isEventBroadcast() {
+        return this.broadcast;
+    }
+
+    private void requireDescriptor(String name) {
+        if (!this.descriptorsByName.containsKey(name))
+            throw new IllegalArgumentException("Unknown config element: " + name);
+    }
+
+    /**
+     * Die {@link #derive(Supplier, String...) abgeleiteten Werte}, zugeordnet zum Namen jedes Elements, von dem sie
+     * abhängen.
+     */
+    private final ConcurrentHashMap<String, CopyOnWriteArrayList<ConfigDerived<?>>> dependents = new ConcurrentHashMap<>();
+
+    /**
+     * Erstellt einen aus den Elementen {@code keys} abgeleiteten Wert. Die Funktion wird erst beim ersten Zugriff
+     * aufgerufen und ihr Ergebnis zwischengespeichert. Ändert sich eines der Elemente, wird das Ergebnis verworfen
+     * und beim nächsten Zugriff neu berechnet. Änderungen anderer Elemente haben keinen Einfluss.
+     * <pre>{@code
+     * ConfigDerived<Pattern> filter = manager.derive(() -> Pattern.compile(Settings.filter), "filter");
+     * }</pre>
+     *
+     * @param fn Die Funktion, die den Wert aus den aktuellen Werten der Elemente berechnet
+     * @param keys Die {@link ConfigElement#name() Namen} der Elemente, von denen der Wert abhängt
+     * @param <T> Der Typ des abgeleiteten Wertes
+     * @return Der abgeleitete Wert
+     * @throws IllegalArgumentException Sollte eines der Elemente nicht registriert sein
+     */
+    public <T> ConfigDerived<T> derive(Supplier<T> fn, String... keys) {
+        for (String key : keys)
+            if (!this.descriptorsByName.containsKey(key))
+                throw new IllegalArgumentException("Unknown config element: " + key);
+
+        ConfigDerived<T> derived = new ConfigDerived<>(this, fn, keys);
+        for (String key : keys)
+            this.dependents.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).addIfAbsent(derived);
+        return derived;
+    }
+
+    void release(ConfigDerived<?> derived) {
+        for (String key : derived.getKeys()) {
+            List<ConfigDerived<?>> values = this.dependents.get(key);
+            if (values != null)
+                values.remove(derived);
+        }
+    }
+
+    /**
+     * Stellt die aktuellen Werte aller registrierten Elemente in einem {@link SharedConfigSegment gemeinsamen
+     * Speicherbereich} für andere Prozesse auf demselben Rechner bereit. Jede spätere Änderung wird sofort in den
+     * Speicherbereich übernommen. Elemente, die erst danach registriert werden, sind nicht enthalten.
+     *
+     * @param file Die Datei, die in den Speicher abgebildet wird
+     * @param textCapacity Die Anzahl an Bytes, die für Werte in Textdarstellung reserviert werden
+     * @return Der Speicherbereich, über dessen {@link SharedConfigSegment#close()} das Teilen beendet wird
+     * @throws IOException Sollte die Datei nicht angelegt werden können
+     * @see SharedConfigSegment#attach(File)
+     */
+    public SharedConfigSegment publishSharedSegment(File file, int textCapacity) throws IOException {
+        SharedConfigSegment segment = SharedConfigSegment.create(this, file, textCapacity);
+        this.segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Die geöffneten {@link #publishSharedSegment(File, int) gemeinsamen Speicherbereiche}, die auch ohne
+     * Benachrichtigung der Zuhörer {@link #restoreValue(ConfigDescriptor, String) eingelesene} Werte erhalten.
+     */
+    private final CopyOnWriteArrayList<SharedConfigSegment> segments = new CopyOnWriteArrayList<>();
+
+    /**
+     * Wird beim {@link SharedConfigSegment#close() Schließen} eines Speicherbereichs aufgerufen.
+     */
+    void releaseSegment(SharedConfigSegment segment) {
+        this.segments.remove(segment);
+    }
+
+    /**
+     * Das {@link ConfigJournal Journal}, in das Änderungen geschrieben werden, oder {@code null}.
+     */
+    private volatile ConfigJournal journal;
+
+    /**
+     * Wechselt in den Journal-Modus. Dazu wird die Datei {@code checkpoint} als Sicherungspunkt geladen und das
+     * danebenliegende {@link ConfigJournal Journal} erneut abgespielt. Anschließend wird jede Änderung nur noch
+     * an das Journal angehängt. Ein neuer Sicherungspunkt wird im Hintergrund geschrieben, sobald das Journal
+     * größer als {@code maxBytes} oder älter als {@code maxAge} ist.
+     *
+     * @param checkpoint Die Datei des Sicherungspunkts, deren Endung wie bei {@link #save(File)} das Format bestimmt
+     * @param maxBytes Die Größe in Bytes, ab der ein neuer Sicherungspunkt geschrieben wird
+     * @param maxAge Das Alter des ältesten Eintrags, ab dem ein neuer Sicherungspunkt geschrieben wird
+     * @return Das geöffnete Journal
+     * @throws IOException Sollte der Sicherungspunkt oder das Journal nicht gelesen werden können
+     */
+    public synchronized ConfigJournal openJournal(File checkpoint, long maxBytes, Duration maxAge) throws IOException {
+        if (this.journal != null)
+            throw new IllegalStateException("A journal is already open");
+
+        ConfigJournal journal = new ConfigJournal(this, checkpoint, maxBytes, maxAge);
+        long seq = journal.recover();
+        this.sequence.accumulateAndGet(seq, Math::max);
+        this.feed.skipTo(seq);
+        this.journal = journal;
+        return journal;
+    }
+
+    /**
+     * Wird beim {@link ConfigJournal#close() Schließen} eines Journals aufgerufen.
+     */
+    synchronized void closeJournal(ConfigJournal journal) {
+        if (this.journal == journal)
+            this.journal = null;
+    }
+
+    /**
+     * Die {@link ConfigLazyLoader verzögert geladene} Datei, oder {@code null}.
+     */
+    private volatile ConfigLazyLoader lazy;
+
+    /**
+     * Öffnet die Datei {@code input} zum verzögerten Laden. Anstatt die gesamte Datei einzulesen, wird nur ein
+     * Index über die Bereiche der einzelnen Einträge aufgebaut oder wiederverwendet. Sofort eingelesen werden nur
+     * die Einträge bereits registrierter Elemente, alle weiteren bei der Registrierung ihres Elements. Anders als
+     * bei {@link #load(String)} werden dabei keine Zuhörer benachrichtigt.
+     *
+     * @param input Der Pfad zu der Datei im unter {@link #load(String)} beschriebenen XML-Format
+     * @return Die geöffnete Datei, über deren {@link ConfigLazyLoader#close()} das verzögerte Laden beendet wird
+     * @throws IOException Sollte die Datei nicht im XML-Format vorliegen oder nicht gelesen werden können
+     */
+    public synchronized ConfigLazyLoader loadLazy(String input) throws IOException {
+        if (this.lazy != null)
+            throw new IllegalStateException("A lazily loaded file is already open");
+
+        this.lazy = ConfigLazyLoader.open(this, input);
+        this.lazy.loadAll();
+        return this.lazy;
+    }
+
+    /**
+     * Wird beim {@link ConfigLazyLoader#close() Schließen} einer verzögert geladenen Datei aufgerufen.
+     */
+    synchronized void closeLazy(ConfigLazyLoader lazy) {
+        if (this.lazy == lazy)
+            this.lazy = null;
+    }
+
+    /**
+     * Der {@link ConfigWarmStart Zwischenspeicher} des letzten {@link #warmStart(String, Class[])}, oder {@code null}.
+     */
+    private volatile ConfigWarmStart warmStart;
+
+    /**
+     * Registriert die Klassen und lädt die Konfigurationsdatei {@code input} über einen Zwischenspeicher, der neben
+     * der Datei unter deren Namen mit der Endung {@code .warm} liegt. Haben sich weder die Klassen noch die Datei seit
+     * dem Schreiben des Zwischenspeichers geändert, werden alle Elemente und Werte daraus in einem Durchlauf
+     * wiederhergestellt. Sonst wird wie gewohnt über {@link #register(Class)}, {@link #loadDefault()} und, falls die
+     * Datei existiert, {@link #load(String)} geladen und anschließend der Zwischenspeicher geschrieben.
+     * <p>
+     * Jedes spätere {@link #save(File) Speichern} in dieselbe Datei erneuert den Zwischenspeicher.
+     *
+     * @param input Der Pfad zu der Konfigurationsdatei
+     * @param classes Die Klassen, deren Elemente registriert werden
+     * @return Ob der Zwischenspeicher verwendet werden konnte
+     * @throws SAXException Sollte ein Fehler in der Struktur der Datei vorliegen
+     * @throws IOException Sollte ein Fehler beim Registrieren oder Einlesen auftreten
+     */
+    public boolean warmStart(String input, Class<?>... classes) throws SAXException, IOException {
+        ConfigWarmStart warmStart = new ConfigWarmStart(this, new File(input), classes);
+        this.warmStart = warmStart;
+        if (warmStart.restore())
+            return true;
+
+        for (Class<?> c : classes)
+            this.register(c);
+        this.loadDefault();
+        if (new File(input).isFile())
+            this.load(input);
+        warmStart.write();
+        return false;
+    }
+
+    /**
+     * Alle {@link ConfigElement Konfigurations-Elemente}, die registriert wurden.
+     */
+    private final CopyOnWriteArrayList<Field> fields = new CopyOnWriteArrayList<>();
+
+    /**
+     * Die {@link ConfigDescriptor Beschreibungen} aller registrierten Elemente in der Reihenfolge von
+     * {@link #fields}, sowie deren Zuordnung zum {@link ConfigElement#name() Namen} und zum Feldnamen.
+     */
+    private final CopyOnWriteArrayList<ConfigDescriptor> descriptors = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, ConfigDescriptor> descriptorsByName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConfigDescriptor> descriptorsByFieldName = new ConcurrentHashMap<>();
+
+    /**
+     * Gibt das erste {@code Field} aus {@link #fields der Liste aller
+     * Konfigurations-Elemente} aus, dessen Name mit dem mitgegebenen {@link String}
+     * übereinstimmt zurück.
+     *
+     * @param name Die Benennung des {@link ConfigElement Konfigurations-Element}
+     * @return Das gleichnamige {@link ConfigElement Konfigurations-Element}, oder
+     * {@code null}, falls keines Vorhanden.
+     */
+    public Field getField(String name) {
+        for (Field f : fields) {
+            if (f.getName().equals(name))
+                return f;
+        }
+        return null;
+    }
+
+    /**
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @return Die {@link ConfigDescriptor Beschreibung} des Elements oder {@code null}, falls keines vorhanden
+     */
+    public ConfigDescriptor getDescriptor(String name) {
+        return this.descriptorsByName.get(name);
+    }
+
+    /**
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @return Der aktuelle Wert des Elements oder {@code null}, falls kein Element oder kein Wert vorhanden ist
+     */
+    public Object get(String name) {
+        ConfigDescriptor d = this.descriptorsByName.get(name);
+        if (d == null)
+            return null;
+        try {
+            return d.getField().get(null);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Konnte den Wert von " + name + " nicht lesen!", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @return Der aktuelle Wert des Elements in seiner {@link ConfigElementType#format(Object) Textdarstellung},
+     * oder {@code null}, falls kein Element oder kein Wert vorhanden ist
+     */
+    public String getValue(String name) {
+        ConfigDescriptor d = this.descriptorsByName.get(name);
+        if (d == null)
+            return null;
+        try {
+            Object value = d.getField().get(null);
+            return value == null ? null : d.getType().format(value);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Konnte den Wert von " + name + " nicht lesen!", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param fieldName Der Name des Java-Feldes, wie er in Konfigurationsdateien steht
+     * @return Die Beschreibung des Elements oder {@code null}, falls keines vorhanden
+     */
+    ConfigDescriptor getDescriptorByFieldName(String fieldName) {
+        return this.descriptorsByFieldName.get(fieldName);
+    }
+
+    /**
+     * @return Die {@link ConfigDescriptor Beschreibungen} aller registrierten Elemente in der Reihenfolge ihrer Registrierung
+     */
+    public List<ConfigDescriptor> getDescriptors() {
+        return Collections.unmodifiableList(this.descriptors);
+    }
+
+
+    /**
+     * Fügt das zu registrierende {@link ConfigElement} in {@link #fields die Liste
+     * aller Konfigurations-Elemente} ein, wenn es über die Annotation
+     * {@link ConfigElement} verfügt. Ein bereits registriertes Feld wird ignoriert.
+     *
+     * @param configElement Das zu registrierende {@link ConfigElement}
+     * @throws IOException Sollte die Datei, die zu registrieren versucht wird,
+     *                     nicht die Annotation {@link ConfigElement} besitzen, wird
+     *                     eine IOException mit der Nachricht: "Not the right
+     *                     annotation argument.", ausgegeben.
+     */
+    public synchronized void register(Field configElement) throws IOException {
+        ConfigElement e = configElement.getAnnotation(ConfigElement.class);
+        if (e == null)
+            throw new IOException("Not the right annotation argument.");
+        if (!fields.addIfAbsent(configElement))
+            return;
+
+        this.register(new ConfigDescriptor(this.descriptors.size(), configElement, e));
+    }
+
+    /**
+     * Registriert ein Element aus einer bereits aufgelösten Beschreibung, ohne die Annotation auszulesen.
+     *
+     * @return Die Beschreibung des Elements, oder {@code null}, falls das Feld bereits registriert war
+     */
+    synchronized ConfigDescriptor register(Field field, String name, String defaultValue, String description,
+                                           String location, ConfigElementType type, boolean visible) {
+        if (!fields.addIfAbsent(field))
+            return null;
+
+        ConfigDescriptor d = new ConfigDescriptor(this.descriptors.size(), field, name, defaultValue, description, location, type, visible);
+        this.register(d);
+        return d;
+    }
+
+    private void register(ConfigDescriptor d) {
+        this.descriptors.add(d);
+        this.descriptorsByName.putIfAbsent(d.getName(), d);
+        this.descriptorsByFieldName.putIfAbsent(d.getFieldName(), d);
+        this.compileValidator(d.getName());
+
+        ConfigLazyLoader lazy = this.lazy;
+        if (lazy != null)
+            lazy.ensureLoaded(d);
+    }
+
+    /**
+     * Registriert alle {@link Field Felder} der {@link Class Klasse}, die über die
+     * Annotation {@link ConfigElement} verfügen über die Methode
+     * {@link #register(Field)}.
+     *
+     * @param c Die {@link Class Klasse}, deren {@link Field Felder}, welche die
+     *          Annotation {@link ConfigElement} tragen, registriert werden sollen.
+     * @throws IOException Sollte ein Fehler beim Registrieren der Felder auftreten.
+     */
+    public void register(Class<?> c) throws IOException {
+        for (Field f : c.getFields()) {
+
+            if (f.getAnnotation(ConfigElement.class) != null)
+                this.register(f);
+
+        }
+    }
+
+    /**
+     * Erstellt ein unveränderliches {@link ConfigSchema Schema} aus allen bisher registrierten
+     * {@link ConfigElement Konfigurations-Elementen}. Aus diesem lassen sich beliebig viele voneinander
+     * unabhängige {@link TenantConfig Konfigurationen} erzeugen, deren Startwerte den jetzigen Werten der
+     * Felder entsprechen.
+     *
+     * @return Das Schema der registrierten Elemente
+     */
+    public ConfigSchema createSchema() {
+        return new ConfigSchema(new ArrayList<>(this.descriptors));
+    }
+
+    /**
+     * Lädt die unter {@link ConfigElement#defaultValue() dem Standartwert}
+     * mitgegebenen Werte in die jeweiligen Felder, sollten diese nicht
+     * standardmäßig über einen Wert verfügen.
+     * <p>
+     * Diese Methode funktioniert nur bedingt. Daher ist es ratsam, die
+     * Felder direkt zu initialisieren.
+     */
+    public void loadDefault() {
+        ConfigLoadDefaultEvent event = new ConfigLoadDefaultEvent();
+        event.begin();
+        int[] applied = {0};
+
+        this.descriptors.forEach(d -> {
+            try {
+                if (d.getField().get(null) == null && this.applyValue(d, d.getDefaultValue()))
+                    applied[0]++;
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                e.printStackTrace();
+            }
+        });
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.entries = this.fields.size();
+            event.applied = applied[0];
+            event.commit();
+        }
+
+        String saveFolder = Paths.get(Settings.HOME_FOLDER, Settings.PROGRAMM_FOLDER).toString();
+
+        if (!Files.exists(FileSystems.getDefault().getPath(saveFolder), LinkOption.NOFOLLOW_LINKS))
+            new File(saveFolder).mkdir();
+
+
+    }
+
+    /**
+     * <p>
+     * Lädt eine Konfigurations Datei ein. Dabei werden die {@link #fields Elemente
+     * aus der Liste aller Konfigurations-Elemente} auf den für sie vermerkten Wert
+     * gesetzt.
+     * </p>
+     *
+     * <p>
+     * Die Konfigurationsdatei ist in {@code XML} zu schreiben. Dabei umschließt der
+     * Parameter {@code config} die gesammte Konfigurationsdatei. Unter dem
+     * Parameter {@code fields} können mithilfe des Parameters {@code field} und dem
+     * folgenden Parameter {@code parameter} die einzelnen Konfigurationswerte
+     * gesetzt werden. Dabei ist {@code name} der Name des zu setztenden Feldes.
+     * {@code value} gibt den Wert an, auf den es gesetzt wird. Unter
+     * {@code default} kann der Standartwert als orientierung angegeben werden und
+     * unter {@code type} ist die Klasse vermerkt, in welche das {@code value}
+     * konvertiert wird.
+     * </p>
+     *
+     * <p>
+     * Endet die Datei auf eine Endung, für die ein anderer {@link ConfigCodec} registriert ist, zum
+     * Beispiel {@code .json} oder {@code .properties}, wird dieses Format verwendet.
+     * </p>
+     *
+     * @param input Der Pfad zu der einzulesenden Datei.
+     * @throws SAXException Sollte ein Fehler in der Struktur der Datei vorliegen.
+     * @throws IOException Sollte ein Fehler beim Einlesen der Datei auftreten
+     */
+    public void load(String input) throws SAXException, IOException {
+        ConfigLoadEvent event = new ConfigLoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(input)))) {
+            ConfigCodecs.forFile(input).read(in, (name, value) -> {
+                ConfigDescriptor d = this.descriptorsByFieldName.get(name);
+                if (d != null)
+                    this.applyValue(d, value);
+            });
+        } catch (IOException e) {
+            if (e.getCause() instanceof SAXException)
+                throw (SAXException) e.getCause();
+            throw e;
+        }
+
+        long bytes = new File(input).length();
+        this.metrics.recordLoad(System.nanoTime() - start, bytes);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = input;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Wandelt den Text {@code value} über {@link ConfigElementType#parse(String, Class)} einmalig in den zum
+     * Typ des Elements passenden Wert um, setzt diesen und benachrichtigt alle Zuhörer.
+     *
+     * @param d Die Beschreibung des zu setzenden Elements
+     * @param value Der neue Wert als Text
+     * @return Ob der Wert gesetzt werden konnte
+     */
+    boolean applyValue(ConfigDescriptor d, String value) {
+        Object newValue;
+        try {
+            newValue = d.getType().parse(value, d.getField().getType());
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Konnte " + d.getName() + " nicht auf " + value + " setzen!", e);
+            return false;
+        }
+        return this.applyParsed(d, value, newValue);
+    }
+
+    /**
+     * Setzt den Wert eines Elements aus seiner Textdarstellung wie einen Startwert, ohne Zuhörer zu benachrichtigen.
+     * Was aus den Werten abgeleitet ist, wird trotzdem aktualisiert: {@link ConfigDerived abgeleitete Werte} werden
+     * verworfen, {@link SharedConfigSegment gemeinsame Speicherbereiche} erhalten den Wert, und der
+     * {@link ConfigChangeFeed Änderungsverlauf} springt auf eine neue Sequenznummer, sodass seine Leser die Werte
+     * neu einlesen.
+     *
+     * @param d Die Beschreibung des zu setzenden Elements
+     * @param value Der Wert als Text
+     */
+    void restoreValue(ConfigDescriptor d, String value) {
+        Field f = d.getField();
+        try {
+            Object newValue = d.getType().parse(value, f.getType());
+            ConfigOptions options = d.getOptions();
+            int ordinal = options == null ? -1 : options.ordinalOf((String) newValue);
+            if (ordinal >= 0)
+                newValue = options.get(ordinal);
+            synchronized (d.getLock()) {
+                f.set(null, newValue);
+                d.setOrdinal(ordinal);
+
+                List<ConfigDerived<?>> derived = this.dependents.get(d.getName());
+                if (derived != null)
+                    for (ConfigDerived<?> dependent : derived)
+                        dependent.invalidate();
+                String text = d.getType().format(newValue);
+                for (SharedConfigSegment segment : this.segments)
+                    segment.write(d.getName(), text);
+                this.feed.skipTo(this.sequence.incrementAndGet());
+            }
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            LOGGER.log(Level.WARNING, "Konnte " + d.getName() + " nicht auf " + value + " setzen!", e);
+        }
+    }
+
+    /**
+     * Setzt einen bereits umgewandelten Wert und benachrichtigt alle Zuhörer.
+     *
+     * @param d Die Beschreibung des zu setzenden Elements
+     * @param value Der neue Wert als Text
+     * @param newValue Der neue Wert im Typ des Elements
+     * @return Ob der Wert gesetzt werden konnte
+     */
+    boolean applyParsed(ConfigDescriptor d, String value, Object newValue) {
+        Field f = d.getField();
+        boolean a = f.isAccessible();
+        f.setAccessible(true);
+        try {
+            ConfigOptions options = d.getOptions();
+            int ordinal = options == null ? -1 : options.ordinalOf((String) newValue);
+            if (ordinal >= 0)
+                newValue = options.get(ordinal);
+            Object previous;
+            Dispatch dispatch;
+            synchronized (d.getLock()) {
+                previous = f.get(null);
+                f.set(null, newValue);
+                d.setOrdinal(ordinal);
+                dispatch = this.dispatchChange(d.getName(), value, previous, newValue);
+            }
+            this.broadcastChange(dispatch, previous, newValue);
+            return true;
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            LOGGER.log(Level.WARNING, "Konnte " + d.getName() + " nicht auf " + value + " setzen!", e);
+            return false;
+        } finally {
+            f.setAccessible(a);
+        }
+    }
+
+    /**
+     * @param descriptors Die zu schreibenden Elemente
+     * @return Die Elemente als {@link ConfigRecord Einträge} einer Konfigurationsdatei. Die Werte werden erst beim
+     * Durchlaufen ausgelesen.
+     */
+    Iterable<ConfigRecord> records(List<ConfigDescriptor> descriptors) {
+        return () -> new Iterator<>() {
+            private final Iterator<ConfigDescriptor> iterator = descriptors.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public ConfigRecord next() {
+                ConfigDescriptor d = iterator.next();
+                String value;
+                try {
+                    value = d.getType().format(d.getField().get(null));
+                } catch (IllegalArgumentException | IllegalAccessException e) {
+                    LOGGER.log(Level.SEVERE, "Fehler beim Erstellen der Config datei!", e);
+                    value = null;
+                }
+                return new ConfigRecord(d.getFieldName(), value, d.getDefaultValue(), d.getType().getTypeName());
+            }
+        };
+    }
+
+    /**
+     * Exportiert die Daten der {@link #fields Elemente aus der Liste aller
+     * Konfigurations-Elemente} in eine Datei nach dem unter {@link #load(String)}
+     * erklärten Aufbau. Diese Datei ist von der Methode {@link #load(String)}
+     * wieder einlesbar. Das Format wird wie beim Laden über die Dateiendung bestimmt.
+     * <p>
+     * Die Datei wird zuerst in eine temporäre Datei geschrieben und dann ersetzt. Ist {@code output} die
+     * {@link #loadLazy(String) verzögert geladene} Datei, werden vorher alle ausstehenden Einträge eingelesen und
+     * das verzögerte Laden anschließend beendet.
+     *
+     * @param output Der Pfad zu dem Exportiert wird.
+     * @throws IOException Sollte es nicht möglich sein an den angegebenen Pfad zu
+     *                     Schreiben, oder sollte output gleich {@code null} sein
+     */
+    public void save(File output) throws IOException {
+        if (output == null)
+            throw new IOException("No file to write to!");
+
+        ConfigSaveEvent event = new ConfigSaveEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        ConfigLazyLoader lazy = this.lazy;
+        boolean replacesLazy = lazy != null && lazy.covers(output);
+        if (replacesLazy)
+            lazy.loadAll();
+
+        Path target = output.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            ConfigCodecs.forFile(output.getName()).write(this.records(this.descriptors), out);
+        }
+        // Die Abbildung der alten Datei muss vor dem Ersetzen freigegeben werden
+        if (replacesLazy)
+            lazy.close();
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        long bytes = output.length();
+        this.metrics.recordSave(System.nanoTime() - start, bytes);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = output.getPath();
+            event.bytes = bytes;
+            event.entries = this.fields.size();
+            event.commit();
+        }
+
+        ConfigWarmStart warmStart = this.warmStart;
+        if (warmStart != null && warmStart.covers(output))
+            warmStart.write();
+    }
+
+    private final ConcurrentHashMap<String, Integer> maxCounting = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> minCounting = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConfigOptions> options = new ConcurrentHashMap<>();
+
+    /**
+     * Setzt den maximalen und den minimalen Zahlenwert, den das Element mit dem Namen {@code name} haben kann.
+     * @param name Der Name des Elements
+     * @param min Der minimale Wert, den das Element haben darf
+     * @param max Der maximale Wert, den das Element haben darf
+     */
+    public void registerIntegerRange(String name, int min, int max) {
+        this.registerIntegerMin(name, min);
+        this.registerIntegerMax(name, max);
+    }
+
+    /**
+     * Setzt den maximalen Wert, den das Element {@code name} haben kann.
+     * @param name Der Name des Elements
+     * @param max Der maximale Wert, den das Element haben darf
+     */
+    public synchronized void registerIntegerMax(String name, int max) {
+        this.maxCounting.put(name, max);
+        this.compileValidator(name);
+    }
+
+    /**
+     * Setzt den minimalen Wert, den das Element {@code name} haben kann.
+     * @param name Der Name des Elements
+     * @param min Der minimale Wert, den das Element haben darf
+     */
+    public synchronized void registerIntegerMin(String name, int min) {
+        this.minCounting.put(name, min);
+        this.compileValidator(name);
+    }
+
+    /**
+     * @param name Der Name des Elements
+     * @return Der über {@link #registerIntegerMin(String, int)} registrierte minimale Wert oder {@code null}
+     */
+    public Integer getIntegerMin(String name) {
+        return this.minCounting.get(name);
+    }
+
+    /**
+     * @param name Der Name des Elements
+     * @return Der über {@link #registerIntegerMax(String, int)} registrierte maximale Wert oder {@code null}
+     */
+    public Integer getIntegerMax(String name) {
+        return this.maxCounting.get(name);
+    }
+
+    /**
+     * Gibt die registrierten Werteigenschaften für das Konfigurationselement zurück. Diese werden nur angewandt, wenn das Element als type {@link ConfigElementType#CHOOSE} angegeben hat.
+     * @param name Der Name des Elements
+     * @return Die möglichen Werteigenschaften
+     */
+    public String[] getRegisteredOptions(String name) {
+        ConfigOptions options = this.options.get(name);
+        return options == null ? null : options.toArray();
+    }
+
+    /**
+     * @param name Der Name des Elements
+     * @return Die registrierten {@link ConfigOptions Optionen} des Elements oder {@code null}, falls keine registriert sind
+     */
+    public ConfigOptions getOptions(String name) {
+        return this.options.get(name);
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#CHOOSE} mit registrierten Optionen
+     * @return Die Ordinalzahl des aktuellen Wertes unter den {@link #getOptions(String) Optionen}, oder {@code -1},
+     * falls der Wert keine der Optionen ist
+     * @throws IllegalArgumentException Sollte das Element nicht existieren oder keine Optionen haben
+     */
+    public int getOrdinal(String name) {
+        ConfigDescriptor d = this.descriptorsByName.get(name);
+        if (d == null || d.getOptions() == null)
+            throw new IllegalArgumentException("No config element with options: " + name);
+        synchronized (d.getLock()) {
+            return this.currentOrdinal(d, d.getOptions());
+        }
+    }
+
+    /**
+     * Gleicht die gespeicherte Ordinalzahl mit dem Feld ab, da dieses auch direkt geschrieben werden kann. Solange
+     * das Feld die internierte Option enthält, genügt dazu ein Vergleich der Referenzen.
+     *
+     * @return Die Ordinalzahl des aktuellen Wertes oder {@code -1}
+     */
+    private int currentOrdinal(ConfigDescriptor d, ConfigOptions options) {
+        Object value;
+        try {
+            value = d.getField().get(null);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Konnte den Wert von " + d.getName() + " nicht lesen!", e);
+            return d.getOrdinal();
+        }
+        int ordinal = d.getOrdinal();
+        if (options.get(ordinal) != value) {
+            ordinal = value instanceof String ? options.ordinalOf((String) value) : -1;
+            d.setOrdinal(ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Setzt den Wert eines Elements vom Typ {@link ConfigElementType#CHOOSE} auf die Option mit der Ordinalzahl
+     * {@code ordinal}. Anders als bei {@link #set(String, Object)} wird dabei kein Text verglichen.
+     *
+     * @param name Der Name des Elements
+     * @param ordinal Die Ordinalzahl der Option
+     * @throws IllegalArgumentException Sollte das Element nicht existieren, keine Optionen haben, die Ordinalzahl
+     * außerhalb der Optionen liegen oder die Änderung verboten werden
+     */
+    public void setOrdinal(String name, int ordinal) {
+        ConfigDescriptor d = this.descriptorsByName.get(name);
+        if (d == null || d.getOptions() == null)
+            throw new IllegalArgumentException("No config element with options: " + name);
+        String message = this.choose(d, ordinal);
+        if (message != null)
+            throw new IllegalArgumentException(message);
+    }
+
+    /**
+     * Setzt die Werteigenschaften für ein Element. Diese werden nur angewandt, wenn das Element als type {@link ConfigElementType#CHOOSE} angegeben hat.
+     * @param name Der Name des Elements
+     * @param options Die möglichen Werte, die der Benutzer auswählen darf
+     */
+    public synchronized void registerOptionParameters(String name, String... options) {
+        this.options.put(name, new ConfigOptions(options));
+        this.compileValidator(name);
+    }
+
+    /**
+     * Stellt die Prüfungen des Elements {@code name} aus den registrierten Grenzen und Optionen neu zusammen.
+     * @param name Der Name des Elements
+     */
+    private void compileValidator(String name) {
+        ConfigDescriptor d = this.descriptorsByName.get(name);
+        if (d == null)
+            return;
+        d.setValidator(ConfigValidator.compile(this.minCounting.get(name), this.maxCounting.get(name), this.options.get(name)));
+
+        ConfigOptions options = d.getOptions();
+        if (options != null) {
+            try {
+                int ordinal = options.ordinalOf((String) d.getField().get(null));
+                if (ordinal >= 0)
+                    d.getField().set(null, options.get(ordinal));
+                d.setOrdinal(ordinal);
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "Konnte den Wert von " + name + " nicht lesen!", e);
+            }
+        } else
+            d.setOrdinal(-1);
+    }
+
+    /**
+     * Setzt den Wert des Elements {@code name}. Der Wert wird gegen die über {@link #registerIntegerRange(String, int, int)}
+     * und {@link #registerOptionParameters(String, String...)} registrierten Einschränkungen geprüft und über das
+     * {@link ConfigChangeAllowedEvent} zur Abstimmung gestellt. Anschließend werden alle Zuhörer benachrichtigt.
+     *
+     * @param name Der Name des Elements
+     * @param value Der neue Wert, entweder im {@link ConfigElementType#getValueType() Typ des Elements} oder als Text
+     * @throws IllegalArgumentException Sollte das Element nicht existieren, der Wert ungültig sein oder die Änderung verboten werden
+     */
+    public void set(String name, Object value) {
+        String message = this.change(name, value);
+        if (message != null)
+            throw new IllegalArgumentException(message);
+    }
+
+    /**
+     * Setzt den Wert des Elements {@code name} wie {@link #set(String, Object)}, ohne bei einem ungültigen
+     * oder verbotenen Wert eine Exception zu werfen.
+     *
+     * @param name Der Name des Elements
+     * @param value Der neue Wert, entweder im {@link ConfigElementType#getValueType() Typ des Elements} oder als Text
+     * @return Ob der Wert übernommen wurde
+     */
+    public boolean trySet(String name, Object value) {
+        return this.change(name, value) == null;
+    }
+
+    /**
+     * @return Die Begründung, wieso der Wert nicht gesetzt wurde, oder {@code null}, wenn er gesetzt wurde
+     */
+    String change(String name, Object value) {
+        ConfigDescriptor d = this.descriptorsByName.get(name);
+        if (d == null)
+            return "Unknown config element: " + name;
+
+        ConfigElementType type = d.getType();
+        Field f = d.getField();
+        Object previous;
+        Dispatch dispatch;
+        try {
+            if (value instanceof String && type.getValueType() != String.class)
+                value = type.parse((String) value, f.getType());
+            if (value != null && !type.getValueType().isInstance(value))
+                return value + " is not a value of type " + type;
+
+            ConfigOptions options = d.getOptions();
+            if (options != null) {
+                int ordinal = options.ordinalOf((String) value);
+                if (ordinal < 0)
+                    return name + ": " + value + " is not one of the registered options";
+                return this.choose(d, ordinal);
+            }
+
+            String invalid = d.getValidator().check(type, value);
+            if (invalid != null)
+                return name + ": " + invalid;
+
+            synchronized (d.getLock()) {
+                previous = f.get(null);
+                if (Objects.equals(previous, value))
+                    return null;
+
+                String message = this.requestChange(name, type, previous, value);
+                if (message != null)
+                    return message;
+
+                f.set(null, value);
+                dispatch = this.dispatchChange(name, type.format(value), previous, value);
+            }
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            return name + ": " + e.getMessage();
+        }
+
+        this.broadcastChange(dispatch, previous, value);
+        return null;
+    }
+
+    /**
+     * Setzt ein Element mit {@link ConfigOptions Optionen} auf die Option {@code ordinal}. Ob sich der Wert
+     * ändert, wird allein über die Ordinalzahl entschieden.
+     *
+     * @return Die Begründung, wieso der Wert nicht gesetzt wurde, oder {@code null}, wenn er gesetzt wurde
+     */
+    private String choose(ConfigDescriptor d, int ordinal) {
+        ConfigOptions options = d.getOptions();
+        if (!options.contains(ordinal))
+            return d.getName() + ": " + ordinal + " is not in range [0, " + options.size() + ")";
+        String value = options.get(ordinal);
+        Field f = d.getField();
+        Object previous;
+        Dispatch dispatch;
+        try {
+            synchronized (d.getLock()) {
+                if (ordinal == this.currentOrdinal(d, options))
+                    return null;
+
+                previous = f.get(null);
+                String message = this.requestChange(d.getName(), d.getType(), previous, value);
+                if (message != null)
+                    return message;
+
+                f.set(null, value);
+                d.setOrdinal(ordinal);
+                dispatch = this.dispatchChange(d.getName(), value, previous, value);
+            }
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            return d.getName() + ": " + e.getMessage();
+        }
+
+        this.broadcastChange(dispatch, previous, value);
+        return null;
+    }
+
+    /**
+     * Wird ausgeführt, wenn sich der Wert eines Konfigurationselements ändert
+     * @param fieldName Der Name des Elements, das sich geändert hat
+     * @param value Der neue Wert des Elements
+     */
+    public void onConfigChanged(String fieldName, String value) {
+        // FOR THE EVENT MANAGER
+
+        ConfigDescriptor d = this.descriptorsByName.get(fieldName);
+        Object current = value;
+        Dispatch dispatch;
+        if (d == null) {
+            dispatch = this.dispatchChange(fieldName, value, null, current);
+        } else {
+            synchronized (d.getLock()) {
+                try {
+                    current = d.getField().get(null);
+                } catch (IllegalAccessException | IllegalArgumentException ignored) { }
+                ConfigOptions options = d.getOptions();
+                if (options != null)
+                    this.currentOrdinal(d, options);
+                dispatch = this.dispatchChange(fieldName, value, null, current);
+            }
+        }
+        this.broadcastChange(dispatch, null, current);
+    }
+
+    /**
+     * Vergibt die Sequenznummer einer Änderung und verteilt sie an den Änderungsverlauf, das Journal und die Zuhörer.
+     * Wird unter der {@link ConfigDescriptor#getLock() Sperre} des Elements aufgerufen, zusammen mit dem Schreiben
+     * des Feldes, sodass die letzte veröffentlichte Änderung immer dem Wert des Feldes entspricht. Die Messung der
+     * Verteilung endet erst mit {@link #broadcastChange(Dispatch, Object, Object)}.
+     * @param fieldName Der Name des Elements, das sich geändert hat
+     * @param value Der neue Wert des Elements als Text
+     * @param previous Der vorherige Wert des Elements oder {@code null}, falls dieser unbekannt ist
+     * @param current Der neue Wert des Elements
+     * @return Die laufende Messung der Verteilung
+     */
+    private Dispatch dispatchChange(String fieldName, String value, Object previous, Object current) {
+        ConfigChangeEvent event = new ConfigChangeEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        long seq = this.sequence.incrementAndGet();
+        this.shards.markDirty(fieldName);
+        ConfigDescriptor d = this.descriptorsByName.get(fieldName);
+        String text = d == null ? value : current == null ? null : d.getType().format(current);
+        ConfigChange change = new ConfigChange(seq, fieldName, d == null ? null : d.getType(), text);
+        this.feed.publish(change);
+        for (ConfigSubscription subscription : this.subscriptions)
+            subscription.offer(change);
+        List<ConfigDerived<?>> derived = this.dependents.get(fieldName);
+        if (derived != null)
+            for (ConfigDerived<?> dependent : derived)
+                dependent.invalidate();
+        for (ConfigChangeListener listener : this.changeListeners)
+            listener.onChange(change);
+        List<ConfigChangeListener> entryListeners = this.entryChangeListeners.get(fieldName);
+        if (entryListeners != null)
+            for (ConfigChangeListener listener : entryListeners)
+                listener.onChange(change);
+        ConfigJournal journal = this.journal;
+        if (journal != null && d != null)
+            journal.append(seq, d, text);
+        return new Dispatch(fieldName, value, event, start);
+    }
+
+    /**
+     * Verteilt eine Änderung, sofern {@link #setEventBroadcast(boolean) eingeschaltet}, über den {@link EventManager}
+     * als {@link ConfigEntryChangeEvent} und als {@link ConfigValueChangeEvent}. Wird nach dem Freigeben der Sperre
+     * des Elements aufgerufen und beendet die in {@link #dispatchChange(String, String, Object, Object)} begonnene
+     * Messung, die so die gesamte Verteilung einschließlich des {@link EventManager}s umfasst.
+     * @param dispatch Die laufende Messung der Verteilung
+     * @param previous Der vorherige Wert des Elements oder {@code null}, falls dieser unbekannt ist
+     * @param current Der neue Wert des Elements
+     */
+    private void broadcastChange(Dispatch dispatch, Object previous, Object current) {
+        String fieldName = dispatch.fieldName;
+        try {
+            if (this.broadcast) {
+                EventManager.getInstance().triggerEvent(new ConfigEntryChangeEvent(fieldName, dispatch.value));
+                EventManager.getInstance().triggerEvent(new ConfigValueChangeEvent<>(fieldName, this.getType(fieldName), previous, current));
+            }
+        } finally {
+            this.metrics.recordDispatch(fieldName, System.nanoTime() - dispatch.start);
+            ConfigChangeEvent event = dispatch.event;
+            event.end();
+            if (event.shouldCommit()) {
+                event.entryName = fieldName;
+                event.entryType = this.getTypeName(fieldName);
+                event.bytes = dispatch.value == null ? 0 : dispatch.value.getBytes(StandardCharsets.UTF_8).length;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Eine über {@link #dispatchChange(String, String, Object, Object)} begonnene und in
+     * {@link #broadcastChange(Dispatch, Object, Object)} beendete Verteilung einer Änderung.
+     */
+    private static final class Dispatch {
+        private final String fieldName, value;
+        private final ConfigChangeEvent event;
+        private final long start;
+
+        private Dispatch(String fieldName, String value, ConfigChangeEvent event, long start) {
+            this.fieldName = fieldName;
+            this.value = value;
+            this.event = event;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Fragt zuerst die {@link #addVetoListener(String, ConfigVetoListener) Veto-Zuhörer} des Elements und dann
+     * über das {@link ConfigChangeAllowedEvent} und das {@link ConfigValueChangeAllowedEvent} an, ob ein
+     * Konfigurationselement geändert werden darf.
+     * @param fieldName Der {@link ConfigElement#name() Name} des Elements
+     * @param type Der Typ des Elements
+     * @param value Der jetzige Wert des Elements
+     * @param newValue Der neu zu setzende Wert des Elements
+     * @return Die Begründung für das Verbot der Änderung oder {@code null}, wenn die Änderung erlaubt ist
+     */
+    private String requestChange(String fieldName, ConfigElementType type, Object value, Object newValue) {
+        ConfigVetoEvent event = new ConfigVetoEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        String message = null;
+        List<ConfigVetoListener> vetoListeners = this.entryVetoListeners.get(fieldName);
+        if (vetoListeners != null)
+            for (ConfigVetoListener listener : vetoListeners) {
+                message = listener.check(fieldName, type, value, newValue);
+                if (message != null)
+                    break;
+            }
+        if (message == null && this.broadcast) {
+            message = EventManager.getInstance().triggerEvent(new ConfigChangeAllowedEvent(fieldName,
+                    type.format(value), type.format(newValue)));
+            if (message == null)
+                message = EventManager.getInstance().triggerEvent(new ConfigValueChangeAllowedEvent<>(fieldName, type, value, newValue));
+        }
+
+        this.metrics.recordVeto(System.nanoTime() - start, message != null);
+        event.end();
+        if (event.shouldCommit()) {
+            event.entryName = fieldName;
+            event.entryType = this.getTypeName(fieldName);
+            event.denied = message != null;
+            event.reason = message;
+            event.commit();
+        }
+        return message;
+    }
+
+    /**
+     * @param fieldName Der Name des Elements
+     * @return Den {@link ConfigElementType#getTypeName() Namen des Typs} des Elements oder {@code null}, falls keines vorhanden
+     */
+    private String getTypeName(String fieldName) {
+        ConfigElementType type = this.getType(fieldName);
+        return type == null ? null : type.getTypeName();
+    }
+
+    /**
+     * @param fieldName Der Name des Elements
+     * @return Den {@link ConfigElementType Typ} des Elements oder {@code null}, falls keines vorhanden
+     */
+    private ConfigElementType getType(String fieldName) {
+        ConfigDescriptor d = this.descriptorsByName.get(fieldName);
+        return d == null ? null : d.getType();
+    }
+
+    /**
+     * Löst für jedes Konfigurationselement {@link ConfigManager#onConfigChanged(String, String)} aus.
+     */
+    public void onConfigChangedGeneral() {
+        for (Field f : this.fields) {
+            if (f.getAnnotation(ConfigElement.class) == null)
+                continue;
+            ConfigElement e = f.getAnnotation(ConfigElement.class);
+            try {
+                this.onConfigChanged(e.name(), String.valueOf(f.get(null)));
+            } catch (IllegalAccessException | IllegalArgumentException | NullPointerException ignored) { }
+        }
+    }
+
+}
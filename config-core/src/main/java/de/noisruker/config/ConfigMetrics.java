@@ -0,0 +1,464 @@
+/*
+ * ConfigManager
+ * ConfigMetrics.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt Kennzahlen über die Arbeit des {@link ConfigManager Konfigurations-Managers}.
+ * Erfasst werden die Dauer und Größe von {@link ConfigManager#load(String) Lade-} und
+ * {@link ConfigManager#save(java.io.File) Speichervorgängen}, die Anzahl der Änderungen je
+ * Konfigurationselement, die Veto-Runden über das
+ * {@link de.noisruker.config.event.ConfigChangeAllowedEvent} sowie die Dauer der Verteilung
+ * von {@link de.noisruker.config.event.ConfigEntryChangeEvent Änderungs-Events}.
+ * <p>
+ * Alle Zähler sind ohne Sperren beschreibbar. Über {@link #snapshot()} kann jederzeit ein
+ * unveränderlicher Stand abgefragt werden, über {@link #registerMBean()} werden die Werte
+ * zusätzlich per JMX veröffentlicht.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#getMetrics()
+ */
+public class ConfigMetrics {
+
+    /**
+     * Der Anfang des Namens, unter dem die Kennzahlen per JMX veröffentlicht werden. Jede Instanz ergänzt ihn
+     * um einen eigenen Schlüssel {@code name}, siehe {@link #getObjectName()}.
+     */
+    public static final String OBJECT_NAME = "de.noisruker.config:type=ConfigMetrics";
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final String objectName = OBJECT_NAME + ",name=" + INSTANCES.incrementAndGet();
+
+    /**
+     * Ob diese Instanz ihre Kennzahlen über {@link #registerMBean()} veröffentlicht hat.
+     */
+    private boolean registered;
+
+    private final LatencyHistogram loadLatency = new LatencyHistogram(),
+            saveLatency = new LatencyHistogram(),
+            vetoLatency = new LatencyHistogram(),
+            dispatchLatency = new LatencyHistogram();
+
+    private final LongAdder loadBytes = new LongAdder(),
+            saveBytes = new LongAdder(),
+            vetoDenials = new LongAdder();
+
+    private final ConcurrentHashMap<String, LongAdder> changes = new ConcurrentHashMap<>();
+
+    ConfigMetrics() {
+    }
+
+    void recordLoad(long nanos, long bytes) {
+        this.loadLatency.record(nanos);
+        this.loadBytes.add(bytes);
+    }
+
+    void recordSave(long nanos, long bytes) {
+        this.saveLatency.record(nanos);
+        this.saveBytes.add(bytes);
+    }
+
+    void recordVeto(long nanos, boolean denied) {
+        this.vetoLatency.record(nanos);
+        if (denied)
+            this.vetoDenials.increment();
+    }
+
+    void recordDispatch(String entryName, long nanos) {
+        this.dispatchLatency.record(nanos);
+        this.changes.computeIfAbsent(entryName, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return Einen unveränderlichen Stand aller bisher erfassten Kennzahlen.
+     */
+    public Snapshot snapshot() {
+        HashMap<String, Long> changesPerEntry = new HashMap<>();
+        this.changes.forEach((name, count) -> changesPerEntry.put(name, count.sum()));
+
+        return new Snapshot(this.loadLatency.snapshot(), this.loadBytes.sum(),
+                this.saveLatency.snapshot(), this.saveBytes.sum(),
+                this.vetoLatency.snapshot(), this.vetoDenials.sum(),
+                this.dispatchLatency.snapshot(), Collections.unmodifiableMap(changesPerEntry));
+    }
+
+    /**
+     * Setzt alle Kennzahlen auf null zurück.
+     */
+    public void reset() {
+        this.loadLatency.reset();
+        this.saveLatency.reset();
+        this.vetoLatency.reset();
+        this.dispatchLatency.reset();
+        this.loadBytes.reset();
+        this.saveBytes.reset();
+        this.vetoDenials.reset();
+        this.changes.clear();
+    }
+
+    /**
+     * @return Der Name, unter dem diese Instanz ihre Kennzahlen per JMX veröffentlicht, bestehend aus
+     * {@link #OBJECT_NAME} und einem eigenen Schlüssel {@code name}
+     */
+    public String getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Veröffentlicht die Kennzahlen als {@link ConfigMetricsMXBean} unter dem Namen
+     * {@link #getObjectName()} im Plattform-MBean-Server. Hat diese Instanz ihre Kennzahlen
+     * bereits veröffentlicht, passiert nichts.
+     * <p>
+     * Das Modul {@code java.management} ist für die Bibliothek optional. Läuft sie als Modul, muss es für die
+     * Registrierung geladen sein, etwa über {@code --add-modules java.management}.
+     *
+     * @throws JMException Sollte die Registrierung fehlschlagen.
+     * @throws UnsupportedOperationException Sollte das Modul {@code java.management} nicht geladen sein
+     */
+    public synchronized void registerMBean() throws JMException {
+        if (ConfigMetrics.class.getModule().isNamed() && ModuleLayer.boot().findModule("java.management").isEmpty())
+            throw new UnsupportedOperationException("The module java.management is required to register the metrics MBean");
+        if (this.registered)
+            return;
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBeanImpl(), new ObjectName(this.objectName));
+        this.registered = true;
+    }
+
+    /**
+     * Entfernt die über {@link #registerMBean()} veröffentlichten Kennzahlen dieser Instanz wieder. Die
+     * Kennzahlen anderer Instanzen bleiben registriert.
+     *
+     * @throws JMException Sollte das Entfernen fehlschlagen.
+     */
+    public synchronized void unregisterMBean() throws JMException {
+        if (!this.registered)
+            return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(this.objectName);
+        if (server.isRegistered(name))
+            server.unregisterMBean(name);
+        this.registered = false;
+    }
+
+    /**
+     * Ein unveränderlicher Stand der {@link ConfigMetrics Kennzahlen}.
+     */
+    public static final class Snapshot {
+
+        private final Latency load, save, veto, dispatch;
+        private final long loadBytes, saveBytes, vetoDenials;
+        private final Map<String, Long> changesPerEntry;
+
+        private Snapshot(Latency load, long loadBytes, Latency save, long saveBytes, Latency veto,
+                         long vetoDenials, Latency dispatch, Map<String, Long> changesPerEntry) {
+            this.load = load;
+            this.loadBytes = loadBytes;
+            this.save = save;
+            this.saveBytes = saveBytes;
+            this.veto = veto;
+            this.vetoDenials = vetoDenials;
+            this.dispatch = dispatch;
+            this.changesPerEntry = changesPerEntry;
+        }
+
+        /**
+         * @return Die Dauer der Ladevorgänge.
+         */
+        public Latency getLoad() {
+            return load;
+        }
+
+        /**
+         * @return Die Anzahl aller eingelesenen Bytes.
+         */
+        public long getLoadBytes() {
+            return loadBytes;
+        }
+
+        /**
+         * @return Die Dauer der Speichervorgänge.
+         */
+        public Latency getSave() {
+            return save;
+        }
+
+        /**
+         * @return Die Anzahl aller geschriebenen Bytes.
+         */
+        public long getSaveBytes() {
+            return saveBytes;
+        }
+
+        /**
+         * @return Die Dauer der Veto-Runden.
+         */
+        public Latency getVeto() {
+            return veto;
+        }
+
+        /**
+         * @return Die Anzahl der abgelehnten Änderungen.
+         */
+        public long getVetoDenials() {
+            return vetoDenials;
+        }
+
+        /**
+         * @return Den Anteil der abgelehnten Änderungen an allen Veto-Runden zwischen 0 und 1.
+         */
+        public double getVetoDenialRate() {
+            return veto.getCount() == 0 ? 0 : (double) vetoDenials / veto.getCount();
+        }
+
+        /**
+         * @return Die Dauer der Verteilung von Änderungs-Events.
+         */
+        public Latency getDispatch() {
+            return dispatch;
+        }
+
+        /**
+         * @return Die Anzahl der Änderungen je Konfigurationselement.
+         */
+        public Map<String, Long> getChangesPerEntry() {
+            return changesPerEntry;
+        }
+
+        @Override
+        public String toString() {
+            return "ConfigMetrics{load=" + load + ", loadBytes=" + loadBytes + ", save=" + save +
+                    ", saveBytes=" + saveBytes + ", veto=" + veto + ", vetoDenials=" + vetoDenials +
+                    ", dispatch=" + dispatch + ", changesPerEntry=" + changesPerEntry + "}";
+        }
+    }
+
+    /**
+     * Die zusammengefasste Verteilung einer gemessenen Dauer.
+     */
+    public static final class Latency {
+
+        private final long count, totalNanos, maxNanos, p50Nanos, p99Nanos;
+
+        private Latency(long count, long totalNanos, long maxNanos, long p50Nanos, long p99Nanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        /**
+         * @return Die Anzahl der Messungen.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return Die Summe aller Messungen in Nanosekunden.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return Die längste Messung in Nanosekunden.
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * @return Die mittlere Dauer in Nanosekunden.
+         */
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * @return Eine obere Schranke für den Median in Nanosekunden.
+         */
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        /**
+         * @return Eine obere Schranke für das 99. Perzentil in Nanosekunden.
+         */
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count + ", meanNanos=" + (long) getMeanNanos() + ", p50Nanos=" + p50Nanos +
+                    ", p99Nanos=" + p99Nanos + ", maxNanos=" + maxNanos + "}";
+        }
+    }
+
+    /**
+     * Ein Histogramm mit Zweierpotenzen als Klassengrenzen. Das Erfassen eines Wertes kostet
+     * nur wenige atomare Additionen.
+     */
+    private static final class LatencyHistogram {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private void record(long nanos) {
+            if (nanos < 0)
+                nanos = 0;
+            this.buckets.incrementAndGet(Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos | 1));
+            this.total.add(nanos);
+            this.max.accumulate(nanos);
+        }
+
+        private void reset() {
+            for (int i = 0; i < this.buckets.length(); i++)
+                this.buckets.set(i, 0);
+            this.total.reset();
+            this.max.reset();
+        }
+
+        private Latency snapshot() {
+            long[] counts = new long[this.buckets.length()];
+            long count = 0;
+            for (int i = 0; i < counts.length; i++)
+                count += counts[i] = this.buckets.get(i);
+            long max = this.max.get();
+
+            return new Latency(count, this.total.sum(), max,
+                    percentile(counts, count, 0.5, max), percentile(counts, count, 0.99, max));
+        }
+
+        private static long percentile(long[] counts, long count, double quantile, long max) {
+            long threshold = (long) Math.ceil(count * quantile), seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= threshold && seen > 0)
+                    return Math.min(i == Long.SIZE - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, max);
+            }
+            return 0;
+        }
+    }
+
+    private final class MXBeanImpl implements ConfigMetricsMXBean {
+
+        @Override
+        public long getLoadCount() {
+            return loadLatency.snapshot().getCount();
+        }
+
+        @Override
+        public double getLoadMeanMillis() {
+            return loadLatency.snapshot().getMeanNanos() / 1e6;
+        }
+
+        @Override
+        public double getLoadMaxMillis() {
+            return loadLatency.snapshot().getMaxNanos() / 1e6;
+        }
+
+        @Override
+        public long getLoadBytes() {
+            return loadBytes.sum();
+        }
+
+        @Override
+        public long getSaveCount() {
+            return saveLatency.snapshot().getCount();
+        }
+
+        @Override
+        public double getSaveMeanMillis() {
+            return saveLatency.snapshot().getMeanNanos() / 1e6;
+        }
+
+        @Override
+        public double getSaveMaxMillis() {
+            return saveLatency.snapshot().getMaxNanos() / 1e6;
+        }
+
+        @Override
+        public double getSaveP99Millis() {
+            return saveLatency.snapshot().getP99Nanos() / 1e6;
+        }
+
+        @Override
+        public long getSaveBytes() {
+            return saveBytes.sum();
+        }
+
+        @Override
+        public long getVetoCount() {
+            return vetoLatency.snapshot().getCount();
+        }
+
+        @Override
+        public long getVetoDenials() {
+            return vetoDenials.sum();
+        }
+
+        @Override
+        public double getVetoDenialRate() {
+            return snapshot().getVetoDenialRate();
+        }
+
+        @Override
+        public long getDispatchCount() {
+            return dispatchLatency.snapshot().getCount();
+        }
+
+        @Override
+        public double getDispatchMeanMillis() {
+            return dispatchLatency.snapshot().getMeanNanos() / 1e6;
+        }
+
+        @Override
+        public double getDispatchP99Millis() {
+            return dispatchLatency.snapshot().getP99Nanos() / 1e6;
+        }
+
+        @Override
+        public Map<String, Long> getChangesPerEntry() {
+            return snapshot().getChangesPerEntry();
+        }
+
+        @Override
+        public void reset() {
+            ConfigMetrics.this.reset();
+        }
+    }
+}
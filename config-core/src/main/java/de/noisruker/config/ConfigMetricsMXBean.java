@@ -0,0 +1,69 @@
+/*
+ * ConfigManager
+ * ConfigMetricsMXBean.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import java.util.Map;
+
+/**
+ * Die JMX-Sicht auf die {@link ConfigMetrics Kennzahlen} des Konfigurations-Managers.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigMetrics#registerMBean()
+ */
+public interface ConfigMetricsMXBean {
+
+    long getLoadCount();
+
+    double getLoadMeanMillis();
+
+    double getLoadMaxMillis();
+
+    long getLoadBytes();
+
+    long getSaveCount();
+
+    double getSaveMeanMillis();
+
+    double getSaveMaxMillis();
+
+    double getSaveP99Millis();
+
+    long getSaveBytes();
+
+    long getVetoCount();
+
+    long getVetoDenials();
+
+    double getVetoDenialRate();
+
+    long getDispatchCount();
+
+    double getDispatchMeanMillis();
+
+    double getDispatchP99Millis();
+
+    Map<String, Long> getChangesPerEntry();
+
+    /**
+     * Setzt alle Kennzahlen auf null zurück.
+     */
+    void reset();
+}
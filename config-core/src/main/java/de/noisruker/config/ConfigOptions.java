@@ -0,0 +1,109 @@
+/*
+ * ConfigManager
+ * ConfigOptions.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.noisruker.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Die über {@link ConfigManager#registerOptionParameters(String, String...)} registrierten Optionen eines Elements
+ * vom Typ {@link ConfigElementType#CHOOSE}. Die Optionen werden einmalig bei der Registrierung
+ * {@link String#intern() interniert} und nummeriert, sodass ein gewählter Wert als Ordinalzahl gespeichert, geprüft
+ * und verglichen werden kann. Nur beim Umwandeln eines fremden Textes in eine Ordinalzahl wird einmal in einer
+ * {@link HashMap} nachgeschlagen.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#getOptions(String)
+ */
+public final class ConfigOptions {
+
+    private final String[] values;
+    private final List<String> list;
+    private final HashMap<String, Integer> ordinals;
+
+    ConfigOptions(String... values) {
+        this.values = new String[values.length];
+        this.ordinals = new HashMap<>(values.length * 2);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null)
+                throw new IllegalArgumentException("Options must not be null");
+            this.values[i] = values[i].intern();
+            this.ordinals.putIfAbsent(this.values[i], i);
+        }
+        this.list = Collections.unmodifiableList(Arrays.asList(this.values));
+    }
+
+    /**
+     * @return Die Anzahl der Optionen
+     */
+    public int size() {
+        return this.values.length;
+    }
+
+    /**
+     * @param ordinal Die Ordinalzahl einer Option
+     * @return Die internierte Option, oder {@code null}, falls die Ordinalzahl außerhalb der Optionen liegt
+     */
+    public String get(int ordinal) {
+        return this.contains(ordinal) ? this.values[ordinal] : null;
+    }
+
+    /**
+     * @param ordinal Die zu prüfende Ordinalzahl
+     * @return Ob die Ordinalzahl eine der Optionen bezeichnet
+     */
+    public boolean contains(int ordinal) {
+        return ordinal >= 0 && ordinal < this.values.length;
+    }
+
+    /**
+     * @param value Der Text einer Option
+     * @return Die Ordinalzahl der Option, oder {@code -1}, falls der Text keine der Optionen ist
+     */
+    public int ordinalOf(String value) {
+        if (value == null)
+            return -1;
+        Integer ordinal = this.ordinals.get(value);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @return Die Optionen in der Reihenfolge ihrer Registrierung als unveränderliche Liste
+     */
+    public List<String> asList() {
+        return this.list;
+    }
+
+    /**
+     * @return Eine Kopie der Optionen
+     */
+    public String[] toArray() {
+        return this.values.clone();
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.values);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * ConfigManager
+ * ConfigSchema.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Ein unveränderliches Abbild aller beim {@link ConfigManager Konfigurations-Manager} registrierten
+ * {@link ConfigElement Konfigurationselemente}. Aus einem Schema lassen sich beliebig viele
+ * {@link TenantConfig Mandanten-Konfigurationen} erzeugen, die sich die Beschreibungen der Elemente
+ * teilen und nur ihre Werte in gepackten Feldern halten:
+ * <ul>
+ *     <li>{@link ConfigElementType#COUNT} und {@link ConfigElementType#CHOOSE} mit registrierten
+ *     {@link ConfigOptions Optionen} als Ordinalzahl in einem {@code int[]},</li>
+ *     <li>{@link ConfigElementType#CHECK} in einem Bitfeld,</li>
+ *     <li>{@link ConfigElementType#LONG} und {@link ConfigElementType#DOUBLE} in einem {@code long[]},</li>
+ *     <li>alle anderen Typen, wie {@link ConfigElementType#TEXT}, in einem {@code Object[]}.</li>
+ * </ul>
+ * Das Schema übernimmt beim Erstellen auch die registrierten Grenzen und Optionen der Elemente, gegen die jeder
+ * in eine {@link TenantConfig} geschriebene Wert geprüft wird. Später registrierte Einschränkungen gelten erst für
+ * ein neu erstelltes Schema.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#createSchema()
+ */
+public final class ConfigSchema {
+
+    private final ConfigDescriptor[] descriptors;
+    private final HashMap<String, ConfigDescriptor> byName = new HashMap<>();
+    private final HashMap<String, ConfigDescriptor> byFieldName = new HashMap<>();
+
+    /**
+     * Die Position des Wertes jedes Elements im zu seinem Typ passenden Feld einer {@link TenantConfig}.
+     */
+    private final int[] slots;
+
+    /**
+     * Die Optionen jedes Elements vom Typ {@link ConfigElementType#CHOOSE} zum Zeitpunkt des Erstellens, sonst {@code null}.
+     */
+    private final ConfigOptions[] options;
+
+    /**
+     * Die Prüfungen jedes Elements zum Zeitpunkt des Erstellens.
+     */
+    private final ConfigValidator[] validators;
+
+    private final int[] defaultInts;
+    private final long[] defaultBits;
+    private final long[] defaultWides;
+    private final Object[] defaultRefs;
+
+    /**
+     * Erstellt das Schema aus den übergebenen Beschreibungen. Als Startwert eines Elements gilt der Wert,
+     * den das statische Feld beim Erstellen hat. Ist dieser {@code null}, wird
+     * {@link ConfigElement#defaultValue() der Standardwert} verwendet.
+     *
+     * @param descriptors Die Beschreibungen der registrierten Elemente
+     */
+    ConfigSchema(List<ConfigDescriptor> descriptors) {
+        this.descriptors = descriptors.toArray(new ConfigDescriptor[0]);
+        this.slots = new int[this.descriptors.length];
+        this.options = new ConfigOptions[this.descriptors.length];
+        this.validators = new ConfigValidator[this.descriptors.length];
+
+        int ints = 0, bits = 0, wides = 0, refs = 0;
+        for (int i = 0; i < this.descriptors.length; i++) {
+            ConfigDescriptor d = this.descriptors[i];
+            this.options[i] = d.getOptions();
+            this.validators[i] = d.getValidator();
+            if (d.getType() == ConfigElementType.COUNT || this.options[i] != null)
+                this.slots[i] = ints++;
+            else if (d.getType() == ConfigElementType.CHECK)
+                this.slots[i] = bits++;
+            else if (d.getType() == ConfigElementType.LONG || d.getType() == ConfigElementType.DOUBLE)
+                this.slots[i] = wides++;
+            else
+                this.slots[i] = refs++;
+            this.byName.putIfAbsent(d.getName(), d);
+            this.byFieldName.putIfAbsent(d.getFieldName(), d);
+        }
+
+        this.defaultInts = new int[ints];
+        this.defaultBits = new long[(bits + Long.SIZE - 1) / Long.SIZE];
+        this.defaultWides = new long[wides];
+        this.defaultRefs = new Object[refs];
+        for (int i = 0; i < this.descriptors.length; i++)
+            if (this.options[i] != null)
+                this.defaultInts[this.slots[i]] = -1;
+
+        for (int i = 0; i < this.descriptors.length; i++) {
+            ConfigDescriptor d = this.descriptors[i];
+            Object value = null;
+            try {
+                value = d.getField().get(null);
+            } catch (IllegalAccessException | IllegalArgumentException | NullPointerException e) {
+                LOGGER.log(Level.WARNING, "Konnte den Wert von " + d.getName() + " nicht lesen!", e);
+            }
+
+            try {
+                if (value == null)
+                    value = d.getType().parse(d.getDefaultValue(), d.getField().getType());
+                if (value != null)
+                    TenantConfig.store(d.getType(), this.options[i], this.slots[i], value, this.defaultInts, this.defaultBits, this.defaultWides, this.defaultRefs);
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "Ungültiger Standardwert für " + d.getName() + ": " + d.getDefaultValue(), e);
+            }
+        }
+    }
+
+    /**
+     * @param d Die Beschreibung eines Elements dieses Schemas
+     * @return Die Position des Wertes im zum Typ des Elements passenden Feld einer {@link TenantConfig}
+     */
+    int slot(ConfigDescriptor d) {
+        int i = d.getIndex();
+        if (i < this.descriptors.length && this.descriptors[i] == d)
+            return this.slots[i];
+        throw new IllegalArgumentException("Config element " + d.getName() + " is not part of this schema");
+    }
+
+    /**
+     * @param d Die Beschreibung eines Elements dieses Schemas
+     * @return Die Optionen des Elements, deren Ordinalzahlen im {@code int[]} einer {@link TenantConfig} gespeichert
+     * werden, oder {@code null}, falls das Element keine hat
+     */
+    ConfigOptions options(ConfigDescriptor d) {
+        this.slot(d);
+        return this.options[d.getIndex()];
+    }
+
+    /**
+     * @param d Die Beschreibung eines Elements dieses Schemas
+     * @return Die Prüfungen des Elements, wie sie beim Erstellen des Schemas registriert waren
+     */
+    ConfigValidator validator(ConfigDescriptor d) {
+        this.slot(d);
+        return this.validators[d.getIndex()];
+    }
+
+    /**
+     * @return Eine neue {@link TenantConfig Mandanten-Konfiguration}, deren Werte den Startwerten dieses Schemas entsprechen.
+     */
+    public TenantConfig newTenant() {
+        return new TenantConfig(this, this.defaultInts.clone(), this.defaultBits.clone(), this.defaultWides.clone(), this.defaultRefs.clone());
+    }
+
+    /**
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @return Die Beschreibung des Elements oder {@code null}, falls keines vorhanden
+     */
+    public ConfigDescriptor getDescriptor(String name) {
+        return this.byName.get(name);
+    }
+
+    /**
+     * @param fieldName Der Name des Feldes, wie er in Konfigurationsdateien steht
+     * @return Die Beschreibung des Elements oder {@code null}, falls keines vorhanden
+     */
+    ConfigDescriptor getDescriptorByFieldName(String fieldName) {
+        return this.byFieldName.get(fieldName);
+    }
+
+    /**
+     * @return Alle Beschreibungen in der Reihenfolge ihrer Registrierung
+     */
+    public List<ConfigDescriptor> getDescriptors() {
+        return Collections.unmodifiableList(Arrays.asList(this.descriptors));
+    }
+
+    /**
+     * @return Die Anzahl der Elemente
+     */
+    public int size() {
+        return this.descriptors.length;
+    }
+}
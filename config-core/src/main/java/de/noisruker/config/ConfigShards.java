@@ -0,0 +1,234 @@
+/*
+ * ConfigManager
+ * ConfigShards.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import de.noisruker.config.codec.ConfigCodecs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Speichert die Konfiguration aufgeteilt in mehrere Dateien, eine je oberstem Abschnitt unterhalb der Wurzel der
+ * {@link ConfigElement#location() Position} der Elemente. Ein Element mit der Position {@code "config.video.display"}
+ * landet so in der Datei {@code video.cfg} des Verzeichnisses, Elemente direkt in der Wurzel wie {@code "config"}
+ * oder ohne Position in {@code general.cfg}.
+ * <p>
+ * Jede Änderung eines Elements markiert dessen Datei als geändert. {@link #save(File)} schreibt nur diese
+ * Dateien neu, sodass der Aufwand beim Speichern von der Größe der Änderung und nicht von der Größe der
+ * gesamten Konfiguration abhängt. {@link #load(File)} liest die Dateien parallel ein.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#getShards()
+ */
+public final class ConfigShards {
+
+    /**
+     * Der Name der Datei für Elemente ohne {@link ConfigElement#location() Position}.
+     */
+    public static final String GENERAL = "general";
+
+    private final ConfigManager manager;
+
+    /**
+     * Die Namen der geänderten Dateien.
+     */
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Die Elemente je Datei. Wird neu aufgebaut, sobald weitere Elemente registriert wurden.
+     */
+    private volatile Map<String, List<ConfigDescriptor>> index = Collections.emptyMap();
+    private volatile int indexed = 0;
+
+    private volatile String extension = "cfg";
+
+    ConfigShards(ConfigManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Der erste Abschnitt der {@link ConfigElement#location() Position} ist die Wurzel des Einstellungsbaums und
+     * damit bei fast allen Elementen gleich. Die Datei wird deshalb nach dem zweiten Abschnitt gewählt.
+     *
+     * @param d Die Beschreibung des Elements
+     * @return Der Name der Datei, in der das Element gespeichert wird
+     */
+    public static String shardOf(ConfigDescriptor d) {
+        String[] segments = d.getLocation().split("\\.");
+        String shard = segments.length < 2 ? "" : segments[1].trim();
+        return shard.isEmpty() ? GENERAL : shard;
+    }
+
+    /**
+     * Legt das Format der Dateien über ihre Endung fest, zum Beispiel {@code "json"}. Standardmäßig wird
+     * {@code "cfg"} verwendet.
+     *
+     * @param extension Die Dateiendung ohne Punkt
+     */
+    public void setExtension(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return Die Namen aller Dateien, deren Elemente seit dem letzten Speichern oder Laden geändert wurden
+     */
+    public Set<String> getDirtyShards() {
+        return Collections.unmodifiableSet(new TreeSet<>(this.dirty));
+    }
+
+    /**
+     * Markiert die Datei des Elements als geändert.
+     *
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     */
+    void markDirty(String name) {
+        ConfigDescriptor d = this.manager.getDescriptor(name);
+        if (d != null)
+            this.dirty.add(shardOf(d));
+    }
+
+    private Map<String, List<ConfigDescriptor>> index() {
+        List<ConfigDescriptor> descriptors = this.manager.getDescriptors();
+        Map<String, List<ConfigDescriptor>> result = this.index;
+        if (this.indexed != descriptors.size()) {
+            result = new LinkedHashMap<>();
+            for (ConfigDescriptor d : descriptors)
+                result.computeIfAbsent(shardOf(d), k -> new ArrayList<>()).add(d);
+            this.index = result;
+            this.indexed = descriptors.size();
+        }
+        return result;
+    }
+
+    private Path file(File directory, String shard) {
+        return directory.toPath().resolve(shard + "." + this.extension);
+    }
+
+    /**
+     * Schreibt alle geänderten Dateien, sowie alle Dateien, die im Verzeichnis noch nicht existieren, neu. Jede
+     * Datei wird zuerst in eine temporäre Datei geschrieben und dann ersetzt, sodass eine Datei nie nur zum Teil
+     * geschrieben vorliegt.
+     *
+     * @param directory Das Verzeichnis der Dateien
+     * @return Die Anzahl der geschriebenen Dateien
+     * @throws IOException Sollte eine Datei nicht geschrieben werden können
+     */
+    public synchronized int save(File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+
+        int written = 0;
+        long start = System.nanoTime();
+        long bytes = 0;
+        for (Map.Entry<String, List<ConfigDescriptor>> shard : this.index().entrySet()) {
+            Path target = this.file(directory, shard.getKey());
+            // Vor dem Schreiben entfernen, damit Änderungen während des Schreibens erhalten bleiben
+            if (!this.dirty.remove(shard.getKey()) && Files.exists(target))
+                continue;
+
+            try {
+                Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    ConfigCodecs.forFile(target.toString()).write(this.manager.records(shard.getValue()), out);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                this.dirty.add(shard.getKey());
+                throw e;
+            }
+            bytes += Files.size(target);
+            written++;
+        }
+
+        if (written > 0)
+            this.manager.getMetrics().recordSave(System.nanoTime() - start, bytes);
+        return written;
+    }
+
+    /**
+     * Liest alle vorhandenen Dateien parallel ein und setzt anschließend die gelesenen Werte. Die eingelesenen
+     * Dateien gelten danach als unverändert.
+     *
+     * @param directory Das Verzeichnis der Dateien
+     * @throws IOException Sollte eine Datei nicht gelesen werden können
+     */
+    public synchronized void load(File directory) throws IOException {
+        long start = System.nanoTime();
+        Map<String, List<ConfigDescriptor>> index = this.index();
+
+        Map<String, Map<String, String>> values;
+        try {
+            values = index.keySet().parallelStream()
+                    .filter(shard -> Files.isRegularFile(this.file(directory, shard)))
+                    .collect(Collectors.toConcurrentMap(shard -> shard, shard -> this.read(this.file(directory, shard))));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long bytes = 0;
+        for (Map.Entry<String, List<ConfigDescriptor>> shard : index.entrySet()) {
+            Map<String, String> read = values.get(shard.getKey());
+            if (read == null)
+                continue;
+            for (ConfigDescriptor d : shard.getValue()) {
+                String value = read.get(d.getFieldName());
+                if (value != null)
+                    this.manager.applyValue(d, value);
+            }
+            this.dirty.remove(shard.getKey());
+            bytes += Files.size(this.file(directory, shard.getKey()));
+        }
+
+        this.manager.getMetrics().recordLoad(System.nanoTime() - start, bytes);
+    }
+
+    private Map<String, String> read(Path file) {
+        HashMap<String, String> values = new HashMap<>();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            ConfigCodecs.forFile(file.toString()).read(in, values::put);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * ConfigManager
+ * ConfigSource.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import de.noisruker.config.codec.ConfigCodecs;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Eine Quelle für Konfigurationswerte, die als Ebene in den {@link ConfigLayers Konfigurations-Ebenen}
+ * verwendet werden kann. Eine Quelle liefert zu einem Element dessen Wert als Text, oder {@code null},
+ * wenn sie für das Element keinen Wert kennt.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#getLayers()
+ */
+public interface ConfigSource {
+
+    /**
+     * @return Der eindeutige Name dieser Quelle
+     */
+    String getName();
+
+    /**
+     * @param descriptor Die Beschreibung des Elements
+     * @return Der Wert des Elements als Text oder {@code null}, wenn diese Quelle keinen Wert für das Element enthält
+     */
+    String get(ConfigDescriptor descriptor);
+
+    /**
+     * Erstellt eine Quelle aus einer {@link Map}. Die Map wird nicht kopiert, nach Änderungen an ihr muss
+     * {@link ConfigLayers#refresh(String, String...)} aufgerufen werden.
+     *
+     * @param name Der Name der Quelle
+     * @param values Die Werte, zugeordnet zum {@link ConfigElement#name() Namen} der Elemente
+     * @return Die Quelle
+     */
+    static ConfigSource of(String name, Map<String, String> values) {
+        return new SimpleConfigSource(name, d -> values.get(d.getName()));
+    }
+
+    /**
+     * Erstellt eine Quelle aus den Umgebungsvariablen. Der Name der Variable setzt sich aus {@code prefix}
+     * und dem in Großbuchstaben geschriebenen {@link ConfigElement#name() Namen} zusammen, wobei jedes
+     * Zeichen, das kein Buchstabe und keine Ziffer ist, durch {@code _} ersetzt wird.
+     *
+     * @param prefix Das Präfix der Variablen, zum Beispiel {@code "CONFIG_"}
+     * @return Die Quelle
+     */
+    static ConfigSource environment(String prefix) {
+        return new SimpleConfigSource("environment", d -> System.getenv(prefix + d.getName().toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "_")));
+    }
+
+    /**
+     * Erstellt eine Quelle aus den System-Properties. Der Name der Property setzt sich aus {@code prefix}
+     * und dem {@link ConfigElement#name() Namen} des Elements zusammen.
+     *
+     * @param prefix Das Präfix der Properties, zum Beispiel {@code "config."}
+     * @return Die Quelle
+     */
+    static ConfigSource systemProperties(String prefix) {
+        return new SimpleConfigSource("systemProperties", d -> System.getProperty(prefix + d.getName()));
+    }
+
+    /**
+     * Erstellt eine Quelle aus Kommandozeilenargumenten der Form {@code --name=wert}. Alle anderen
+     * Argumente werden ignoriert.
+     *
+     * @param args Die Kommandozeilenargumente
+     * @return Die Quelle
+     */
+    static ConfigSource commandLine(String... args) {
+        HashMap<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (arg.startsWith("--") && split > 2)
+                values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        return of("commandLine", values);
+    }
+
+    /**
+     * Liest eine Konfigurationsdatei im unter {@link ConfigManager#load(String)} beschriebenen Aufbau als Quelle ein.
+     * Das Format wird über {@link ConfigCodecs#forFile(String)} anhand der Dateiendung bestimmt.
+     *
+     * @param input Der Pfad zu der einzulesenden Datei
+     * @return Die Quelle
+     * @throws IOException Sollte ein Fehler beim Einlesen der Datei auftreten oder die Datei nicht dem Format entsprechen
+     */
+    static ConfigSource file(String input) throws IOException {
+        HashMap<String, String> values = new HashMap<>();
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(input)))) {
+            ConfigCodecs.forFile(input).read(in, values::put);
+        }
+
+        return new SimpleConfigSource("file", d -> values.get(d.getFieldName()));
+    }
+}
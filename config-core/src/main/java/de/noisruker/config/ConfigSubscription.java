@@ -0,0 +1,150 @@
+/*
+ * ConfigManager
+ * ConfigSubscription.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Ein Abonnement von {@link ConfigManager#subscribe(String...)}. Noch nicht ausgelieferte Änderungen werden je
+ * Element zusammengefasst, sodass ein langsamer Abonnent nur den jeweils neuesten Wert erhält und die
+ * Warteschlange nie mehr Einträge als abonnierte Elemente enthält. Änderungen werden nur im Rahmen der mit
+ * {@link #request(long)} angeforderten Menge und nie gleichzeitig über den {@link Executor} ausgeliefert.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+final class ConfigSubscription implements Flow.Subscription {
+
+    private final ConfigManager manager;
+    private final Flow.Subscriber<? super ConfigChange> subscriber;
+    private final Set<String> keys;
+    private final Executor executor;
+
+    /**
+     * Die noch nicht ausgelieferten Änderungen in der Reihenfolge ihrer ersten Änderung, zugeordnet zum Namen
+     * des Elements. Wird über {@code this} synchronisiert.
+     */
+    private final LinkedHashMap<String, ConfigChange> pending = new LinkedHashMap<>();
+    private long demand;
+    private volatile boolean cancelled;
+
+    /**
+     * Der Fehler einer ungültigen Anforderung, den der ausliefernde Thread an den Abonnenten meldet.
+     */
+    private volatile Throwable error;
+
+    /**
+     * Die Anzahl der angeforderten Auslieferungsdurchläufe. Nur der Thread, der sie von 0 erhöht, liefert aus.
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    ConfigSubscription(ConfigManager manager, Flow.Subscriber<? super ConfigChange> subscriber, String[] keys, Executor executor) {
+        this.manager = manager;
+        this.subscriber = subscriber;
+        this.keys = keys.length == 0 ? null : new HashSet<>(Arrays.asList(keys));
+        this.executor = executor;
+    }
+
+    /**
+     * Nimmt eine Änderung entgegen, falls sie ein abonniertes Element betrifft. Eine noch nicht ausgelieferte
+     * Änderung des gleichen Elements wird dabei ersetzt.
+     */
+    void offer(ConfigChange change) {
+        if (this.cancelled || (this.keys != null && !this.keys.contains(change.getName())))
+            return;
+        synchronized (this) {
+            this.pending.put(change.getName(), change);
+        }
+        this.schedule();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            // Der Fehler darf nicht gleichzeitig zu einer Auslieferung gemeldet werden
+            synchronized (this) {
+                if (this.error == null)
+                    this.error = new IllegalArgumentException("Non-positive request: " + n);
+            }
+            this.schedule();
+            return;
+        }
+        synchronized (this) {
+            this.demand = this.demand + n < 0 ? Long.MAX_VALUE : this.demand + n;
+        }
+        this.schedule();
+    }
+
+    @Override
+    public void cancel() {
+        this.cancelled = true;
+        synchronized (this) {
+            this.pending.clear();
+        }
+        this.manager.unsubscribe(this);
+    }
+
+    private void schedule() {
+        if (this.wip.getAndIncrement() == 0)
+            this.executor.execute(this::drain);
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            while (true) {
+                Throwable failure = this.error;
+                if (failure != null && !this.cancelled) {
+                    this.cancel();
+                    this.subscriber.onError(failure);
+                    return;
+                }
+                ConfigChange next;
+                synchronized (this) {
+                    if (this.cancelled || this.demand == 0 || this.pending.isEmpty())
+                        break;
+                    Iterator<ConfigChange> it = this.pending.values().iterator();
+                    next = it.next();
+                    it.remove();
+                    if (this.demand != Long.MAX_VALUE)
+                        this.demand--;
+                }
+                try {
+                    this.subscriber.onNext(next);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Abonnent hat beim Verarbeiten von " + next.getName() + " einen Fehler geworfen!", e);
+                    this.cancel();
+                    return;
+                }
+            }
+            missed = this.wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
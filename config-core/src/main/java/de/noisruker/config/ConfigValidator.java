@@ -0,0 +1,83 @@
+/*
+ * ConfigManager
+ * ConfigValidator.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+/**
+ * Die bei der Registrierung zusammengestellten Prüfungen eines Konfigurationselements. Die Grenzen aus
+ * {@link ConfigManager#registerIntegerRange(String, int, int)} liegen als primitive Werte vor, die Optionen
+ * aus {@link ConfigManager#registerOptionParameters(String, String...)} als {@link ConfigOptions nummerierte
+ * Optionen}, sodass eine Prüfung ohne Nachschlagen in den Registrierungs-Maps auskommt.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#set(String, Object)
+ */
+final class ConfigValidator {
+
+    /**
+     * Ein Validator ohne Einschränkungen.
+     */
+    static final ConfigValidator NONE = new ConfigValidator(Integer.MIN_VALUE, Integer.MAX_VALUE, null);
+
+    private final int min, max;
+    private final ConfigOptions options;
+
+    private ConfigValidator(int min, int max, ConfigOptions options) {
+        this.min = min;
+        this.max = max;
+        this.options = options;
+    }
+
+    /**
+     * @param min Der minimale Wert oder {@code null}, falls keiner registriert ist
+     * @param max Der maximale Wert oder {@code null}, falls keiner registriert ist
+     * @param options Die erlaubten Optionen oder {@code null}, falls keine registriert sind
+     * @return Der Validator für die übergebenen Einschränkungen
+     */
+    static ConfigValidator compile(Integer min, Integer max, ConfigOptions options) {
+        if (min == null && max == null && options == null)
+            return NONE;
+        return new ConfigValidator(min == null ? Integer.MIN_VALUE : min, max == null ? Integer.MAX_VALUE : max, options);
+    }
+
+    /**
+     * @return Die erlaubten Optionen oder {@code null}, falls keine registriert sind
+     */
+    ConfigOptions getOptions() {
+        return this.options;
+    }
+
+    /**
+     * Prüft einen bereits in den Typ des Elements umgewandelten Wert.
+     *
+     * @param type Der Typ des Elements
+     * @param value Der zu prüfende Wert
+     * @return Eine Beschreibung, wieso der Wert ungültig ist, oder {@code null}, wenn er gültig ist
+     */
+    String check(ConfigElementType type, Object value) {
+        if (type == ConfigElementType.COUNT && value != null) {
+            int i = (Integer) value;
+            if (i < this.min || i > this.max)
+                return value + " is not in range [" + this.min + ", " + this.max + "]";
+        } else if (type == ConfigElementType.CHOOSE && this.options != null && this.options.ordinalOf((String) value) < 0)
+            return value + " is not one of the registered options";
+        return null;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * ConfigManager
+ * ConfigVetoListener.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.noisruker.config;
+
+/**
+ * Ein Zuhörer, der vor der Änderung eines bestimmten Konfigurationselements befragt wird und diese verbieten kann.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#addVetoListener(String, ConfigVetoListener)
+ */
+@FunctionalInterface
+public interface ConfigVetoListener {
+
+    /**
+     * @param name Der {@link ConfigElement#name() Name} des Elements
+     * @param type Der Typ des Elements
+     * @param value Der jetzige Wert des Elements
+     * @param newValue Der Wert, auf den das Element gesetzt werden soll
+     * @return Eine kurze Begründung, wieso der Wert verboten wird, oder {@code null}, wenn die Änderung erlaubt ist
+     */
+    String check(String name, ConfigElementType type, Object value, Object newValue);
+}
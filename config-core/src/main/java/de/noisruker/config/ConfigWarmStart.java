@@ -0,0 +1,297 @@
+/*
+ * ConfigManager
+ * ConfigWarmStart.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.noisruker.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Ein Zwischenspeicher für den Start einer Anwendung, der neben der Konfigurationsdatei unter deren Namen mit der
+ * Endung {@code .warm} liegt. Er enthält die Beschreibungen aller registrierten Elemente und deren zuletzt
+ * übernommene Werte, bei den einfachen Typen bereits umgewandelt.
+ * <p>
+ * Der Zwischenspeicher gilt nur, solange sich weder die registrierten Klassen noch die Konfigurationsdatei geändert
+ * haben. Dazu wird ein Fingerabdruck aus den Namen und dem Bytecode der Klassen, sowie der Größe und dem
+ * Änderungszeitpunkt der Datei abgelegt. Stimmt dieser überein, werden alle Elemente mit einem einzigen
+ * sequenziellen Lesen wiederhergestellt, ohne die Klassen nach Annotationen zu durchsuchen und ohne die
+ * Konfigurationsdatei einzulesen.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#warmStart(String, Class[])
+ */
+final class ConfigWarmStart {
+
+    /**
+     * Kennzeichnet einen Zwischenspeicher im hier beschriebenen Aufbau.
+     */
+    private static final int MAGIC = 0x43575331;
+
+    private static final byte NULL = 0, INT = 1, BOOLEAN = 2, LONG = 3, DOUBLE = 4, STRING = 5, TEXT = 6;
+
+    private final ConfigManager manager;
+    private final File config;
+    private final Path cache;
+    private final Class<?>[] classes;
+
+    ConfigWarmStart(ConfigManager manager, File config, Class<?>[] classes) {
+        this.manager = manager;
+        this.config = config;
+        this.cache = config.toPath().resolveSibling(config.getName() + ".warm");
+        this.classes = classes.clone();
+    }
+
+    /**
+     * @param file Eine Konfigurationsdatei
+     * @return Ob dieser Zwischenspeicher zu der Datei gehört
+     */
+    boolean covers(File file) {
+        return this.config.getAbsoluteFile().equals(file.getAbsoluteFile());
+    }
+
+    /**
+     * Stellt die Elemente und Werte aus dem Zwischenspeicher wieder her, sofern dieser zu den Klassen und der
+     * Konfigurationsdatei passt.
+     *
+     * @return Ob der Zwischenspeicher verwendet wurde
+     */
+    boolean restore() {
+        byte[] fingerprint = this.fingerprint();
+        if (fingerprint == null || !Files.isRegularFile(this.cache))
+            return false;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.cache)))) {
+            if (in.readInt() != MAGIC)
+                return false;
+            byte[] stored = new byte[in.readUnsignedShort()];
+            in.readFully(stored);
+            if (!Arrays.equals(stored, fingerprint))
+                return false;
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Field f = this.classes[in.readUnsignedShort()].getField(in.readUTF());
+                String name = in.readUTF();
+                String defaultValue = readString(in);
+                String description = readString(in);
+                String location = in.readUTF();
+                ConfigElementType type = ConfigElementType.valueOf(in.readUTF());
+                boolean visible = in.readBoolean();
+                Object value = readValue(in, type, f.getType());
+
+                ConfigDescriptor d = this.manager.register(f, name, defaultValue, description, location, type, visible);
+                if (d != null && value != null)
+                    this.manager.applyParsed(d, type.format(value), value);
+            }
+            return true;
+        } catch (IOException | ReflectiveOperationException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            LOGGER.log(Level.INFO, "Zwischenspeicher " + this.cache + " ist unbrauchbar", e);
+            return false;
+        }
+    }
+
+    /**
+     * Schreibt die aktuellen Elemente und Werte in den Zwischenspeicher. Es werden nur Elemente aus den Klassen
+     * dieses Zwischenspeichers aufgenommen.
+     */
+    void write() {
+        byte[] fingerprint = this.fingerprint();
+        if (fingerprint == null)
+            return;
+
+        List<ConfigDescriptor> descriptors = this.manager.getDescriptors();
+        Path temp = this.cache.resolveSibling(this.cache.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(fingerprint.length);
+                out.write(fingerprint);
+
+                int count = 0;
+                for (ConfigDescriptor d : descriptors)
+                    if (this.classIndex(d) >= 0)
+                        count++;
+                out.writeInt(count);
+
+                for (ConfigDescriptor d : descriptors) {
+                    int index = this.classIndex(d);
+                    if (index < 0)
+                        continue;
+                    out.writeShort(index);
+                    out.writeUTF(d.getFieldName());
+                    out.writeUTF(d.getName());
+                    writeString(out, d.getDefaultValue());
+                    writeString(out, d.getDescription());
+                    out.writeUTF(d.getLocation());
+                    out.writeUTF(d.getType().name());
+                    out.writeBoolean(d.isVisible());
+                    writeValue(out, d.getType(), d.getField().get(null));
+                }
+            }
+            try {
+                Files.move(temp, this.cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, this.cache, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | IllegalAccessException e) {
+            LOGGER.log(Level.WARNING, "Konnte den Zwischenspeicher " + this.cache + " nicht schreiben!", e);
+        }
+    }
+
+    /**
+     * @return Die Position der Klasse, über die das Feld des Elements gefunden wird, oder {@code -1}
+     */
+    private int classIndex(ConfigDescriptor d) {
+        Field f = d.getField();
+        for (int i = 0; i < this.classes.length; i++) {
+            try {
+                if (this.classes[i].getField(f.getName()).equals(f))
+                    return i;
+            } catch (NoSuchFieldException ignored) { }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Der Fingerabdruck der Klassen und der Konfigurationsdatei, oder {@code null}, falls der Bytecode
+     * einer Klasse nicht gelesen werden kann
+     */
+    private byte[] fingerprint() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Class<?> c : this.classes) {
+                digest.update(c.getName().getBytes(StandardCharsets.UTF_8));
+                String resource = c.getName().substring(c.getName().lastIndexOf('.') + 1) + ".class";
+                try (InputStream in = c.getResourceAsStream(resource)) {
+                    if (in == null) {
+                        LOGGER.log(Level.INFO, "Kein Bytecode für " + c.getName() + " gefunden, der Zwischenspeicher wird nicht verwendet");
+                        return null;
+                    }
+                    digest.update(in.readAllBytes());
+                }
+            }
+            boolean exists = this.config.isFile();
+            digest.update(ByteBuffer.allocate(2 * Long.BYTES)
+                    .putLong(exists ? this.config.length() : -1)
+                    .putLong(exists ? this.config.lastModified() : -1)
+                    .array());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            LOGGER.log(Level.WARNING, "Konnte den Fingerabdruck für " + this.cache + " nicht bilden!", e);
+            return null;
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, ConfigElementType type, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+            return;
+        }
+        switch (type) {
+            case COUNT:
+                out.writeByte(INT);
+                out.writeInt((Integer) value);
+                break;
+            case CHECK:
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) value);
+                break;
+            case LONG:
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+                break;
+            case DOUBLE:
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+                break;
+            case TEXT:
+            case CHOOSE:
+                out.writeByte(STRING);
+                writeString(out, (String) value);
+                break;
+            default:
+                out.writeByte(TEXT);
+                writeString(out, type.format(value));
+        }
+    }
+
+    private static Object readValue(DataInputStream in, ConfigElementType type, Class<?> fieldType) throws IOException {
+        switch (in.readByte()) {
+            case NULL:
+                return null;
+            case INT:
+                return in.readInt();
+            case BOOLEAN:
+                return in.readBoolean();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case STRING:
+                return readString(in);
+            case TEXT:
+                return type.parse(readString(in), fieldType);
+            default:
+                throw new IOException("Unknown value tag");
+        }
+    }
+
+    /**
+     * Schreibt einen Text beliebiger Länge, anders als {@link DataOutputStream#writeUTF(String)}.
+     */
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
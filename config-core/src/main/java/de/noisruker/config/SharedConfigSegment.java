@@ -0,0 +1,465 @@
+/*
+ * ConfigManager
+ * SharedConfigSegment.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Ein Speicherbereich in einer in den Speicher abgebildeten Datei, in dem der {@link ConfigManager} die aktuellen
+ * Werte aller Elemente für andere Prozesse auf demselben Rechner bereitstellt. Andere Prozesse
+ * {@link #attach(File) verbinden} sich nur lesend und lesen die Werte ohne Umwandlung direkt aus dem Speicher.
+ * <p>
+ * Der Aufbau wird beim {@link ConfigManager#publishSharedSegment(File, int) Anlegen} aus den registrierten
+ * Elementen bestimmt und ändert sich danach nicht mehr:
+ * <ul>
+ *     <li>Kopf: Kennung, Formatversion, Versionswort, Anzahl der Elemente und Beginn der Werte</li>
+ *     <li>Verzeichnis: je Element Name, Typ, Position und Kapazität des Wertes</li>
+ *     <li>Werte: je Element ein Kopf-{@code int} ({@code 0} für {@code null}) und der Wert, {@code int},
+ *     {@code long} oder die Bits eines {@code double}, für alle anderen Typen die
+ *     {@link ConfigElementType#format(Object) Textdarstellung} als UTF-8 mit der Länge im Kopf</li>
+ * </ul>
+ * Die Kapazität eines Textwertes ist die beim Anlegen angegebene Anzahl an Bytes oder, falls der Wert zu diesem
+ * Zeitpunkt länger ist, dessen Länge. Spätere Werte, die nicht mehr in ihren Platz passen, werden über einen
+ * {@link ConfigVetoListener} abgelehnt.
+ * <p>
+ * Das Versionswort ist ein Seqlock: Der schreibende Prozess setzt es vor dem Schreiben auf einen ungeraden und
+ * danach auf den nächsten geraden Wert. Ein Leser liest den Wert zwischen zwei gleichen, geraden Versionen und
+ * wiederholt das Lesen sonst. Bleibt die Version länger als {@link #MAX_WRITE_NANOS} ungerade, etwa weil der
+ * schreibende Prozess während des Schreibens beendet wurde, bricht das Lesen mit einer
+ * {@link IllegalStateException} ab. Über {@link #getVersion()} lässt sich so mit einem einzigen Speicherzugriff
+ * prüfen, ob sich ein Wert geändert hat.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigManager#publishSharedSegment(File, int)
+ */
+public final class SharedConfigSegment implements Closeable {
+
+    private static final int MAGIC = 0x43464753;
+    private static final int FORMAT = 1;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_FORMAT = 4;
+    private static final int OFFSET_VERSION = 8;
+    private static final int OFFSET_COUNT = 16;
+    private static final int OFFSET_DATA = 20;
+    private static final int HEADER = 64;
+
+    /**
+     * Die längste Zeit in Nanosekunden, die ein Leser auf das Ende eines Schreibvorgangs wartet.
+     */
+    public static final long MAX_WRITE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Zugriff auf das Versionswort mit Acquire-/Release-Semantik.
+     */
+    private static final VarHandle VERSION = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Map<String, Slot> slots;
+    private final ConfigManager manager;
+    private final ConfigChangeListener listener;
+    private final ConfigVetoListener veto;
+
+    private SharedConfigSegment(FileChannel channel, MappedByteBuffer buffer, Map<String, Slot> slots, ConfigManager manager) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slots = slots;
+        this.manager = manager;
+        this.listener = manager == null ? null : change -> this.write(change.getName(), change.getValue());
+        this.veto = manager == null ? null : this::checkCapacity;
+    }
+
+    /**
+     * Legt den Speicherbereich für alle registrierten Elemente an und schreibt deren aktuelle Werte.
+     */
+    static SharedConfigSegment create(ConfigManager manager, File file, int textCapacity) throws IOException {
+        List<ConfigDescriptor> descriptors = manager.getDescriptors();
+
+        // Verzeichnis: Namenslänge, Name, Typ, Position und Kapazität
+        int directory = 0;
+        for (ConfigDescriptor d : descriptors)
+            directory += 2 + d.getName().getBytes(StandardCharsets.UTF_8).length + 1 + 4 + 4;
+        int data = align(HEADER + directory);
+
+        Map<String, Slot> slots = new HashMap<>();
+        int offset = data;
+        for (ConfigDescriptor d : descriptors) {
+            int capacity = capacity(d.getType(), textCapacity);
+            String value = manager.getValue(d.getName());
+            if (value != null && isText(d.getType()))
+                capacity = Math.max(capacity, value.getBytes(StandardCharsets.UTF_8).length);
+            slots.put(d.getName(), new Slot(d.getType(), offset, capacity));
+            offset = align(offset + 4 + capacity);
+        }
+
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, offset);
+        buffer.order(ByteOrder.nativeOrder());
+
+        buffer.putInt(OFFSET_FORMAT, FORMAT);
+        buffer.putInt(OFFSET_COUNT, descriptors.size());
+        buffer.putInt(OFFSET_DATA, data);
+        int position = HEADER;
+        for (ConfigDescriptor d : descriptors) {
+            byte[] name = d.getName().getBytes(StandardCharsets.UTF_8);
+            Slot slot = slots.get(d.getName());
+            buffer.putShort(position, (short) name.length);
+            position += 2;
+            for (byte b : name)
+                buffer.put(position++, b);
+            buffer.put(position++, (byte) d.getType().ordinal());
+            buffer.putInt(position, slot.offset);
+            buffer.putInt(position + 4, slot.capacity);
+            position += 8;
+        }
+
+        SharedConfigSegment segment = new SharedConfigSegment(channel, buffer, Collections.unmodifiableMap(slots), manager);
+        for (ConfigDescriptor d : descriptors)
+            segment.write(d.getName(), manager.getValue(d.getName()));
+        // Die Kennung zuletzt, damit sich kein Leser mit einem halb geschriebenen Bereich verbindet
+        VarHandle.storeStoreFence();
+        buffer.putInt(OFFSET_MAGIC, MAGIC);
+        for (Map.Entry<String, Slot> e : slots.entrySet())
+            if (e.getValue().isText())
+                manager.addVetoListener(e.getKey(), segment.veto);
+        manager.addChangeListener(segment.listener);
+        return segment;
+    }
+
+    /**
+     * Verbindet sich lesend mit einem Speicherbereich, den ein anderer Prozess über
+     * {@link ConfigManager#publishSharedSegment(File, int)} angelegt hat.
+     *
+     * @param file Die Datei des Speicherbereichs
+     * @return Der Speicherbereich
+     * @throws IOException Sollte die Datei nicht gelesen werden können oder keinen gültigen Speicherbereich enthalten
+     */
+    public static SharedConfigSegment attach(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+            if (buffer.capacity() < HEADER || buffer.getInt(OFFSET_MAGIC) != MAGIC)
+                throw new IOException(file + " is not a shared config segment");
+            if (buffer.getInt(OFFSET_FORMAT) != FORMAT)
+                throw new IOException("Unsupported shared config segment format: " + buffer.getInt(OFFSET_FORMAT));
+
+            int count = buffer.getInt(OFFSET_COUNT);
+            Map<String, Slot> slots = new HashMap<>();
+            int position = HEADER;
+            ConfigElementType[] types = ConfigElementType.values();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[buffer.getShort(position)];
+                position += 2;
+                for (int j = 0; j < name.length; j++)
+                    name[j] = buffer.get(position++);
+                ConfigElementType type = types[buffer.get(position++)];
+                slots.put(new String(name, StandardCharsets.UTF_8), new Slot(type, buffer.getInt(position), buffer.getInt(position + 4)));
+                position += 8;
+            }
+            return new SharedConfigSegment(channel, buffer, Collections.unmodifiableMap(slots), null);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    private static boolean isText(ConfigElementType type) {
+        return type != ConfigElementType.CHECK && type != ConfigElementType.COUNT
+                && type != ConfigElementType.LONG && type != ConfigElementType.DOUBLE;
+    }
+
+    private static int capacity(ConfigElementType type, int textCapacity) {
+        switch (type) {
+            case CHECK:
+            case COUNT:
+                return 4;
+            case LONG:
+            case DOUBLE:
+                return 8;
+            default:
+                return textCapacity;
+        }
+    }
+
+    /**
+     * @return Die Version der Werte. Sie ändert sich bei jeder Änderung eines Wertes und ist während des
+     * Schreibens ungerade.
+     */
+    public long getVersion() {
+        return (long) VERSION.getAcquire(this.buffer, OFFSET_VERSION);
+    }
+
+    /**
+     * @return Die {@link ConfigElement#name() Namen} aller Elemente im Speicherbereich
+     */
+    public Set<String> getNames() {
+        return this.slots.keySet();
+    }
+
+    /**
+     * Verbietet Textwerte, die nicht in ihren Platz im Speicherbereich passen.
+     */
+    private String checkCapacity(String name, ConfigElementType type, Object value, Object newValue) {
+        Slot slot = this.slots.get(name);
+        if (slot == null || newValue == null)
+            return null;
+        int length = type.format(newValue).getBytes(StandardCharsets.UTF_8).length;
+        if (length <= slot.capacity)
+            return null;
+        return name + ": " + length + " bytes exceed the shared segment capacity of " + slot.capacity + " bytes";
+    }
+
+    /**
+     * Schreibt einen Wert unter dem Seqlock.
+     */
+    synchronized void write(String name, String value) {
+        Slot slot = this.slots.get(name);
+        if (slot == null)
+            return;
+
+        // Der Wert wird vor dem Sperren umgewandelt, damit ein Fehler das Versionswort nicht ungerade zurücklässt
+        byte[] text = null;
+        long bits = 0;
+        try {
+            if (value != null && slot.isText()) {
+                text = value.getBytes(StandardCharsets.UTF_8);
+                if (text.length > slot.capacity) {
+                    LOGGER.log(Level.WARNING, "Der Wert von " + name + " ist länger als " + slot.capacity + " Bytes und wird nicht geteilt!");
+                    value = null;
+                }
+            } else if (value != null) {
+                switch (slot.type) {
+                    case CHECK:
+                        bits = Boolean.parseBoolean(value) ? 1 : 0;
+                        break;
+                    case COUNT:
+                    case LONG:
+                        bits = Long.parseLong(value);
+                        break;
+                    default:
+                        bits = Double.doubleToRawLongBits(Double.parseDouble(value));
+                }
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Der Wert von " + name + " konnte nicht geteilt werden!", e);
+            value = null;
+        }
+
+        long version = (long) VERSION.get(this.buffer, OFFSET_VERSION);
+        VERSION.setOpaque(this.buffer, OFFSET_VERSION, version + 1);
+        VarHandle.storeStoreFence();
+
+        if (value == null) {
+            this.buffer.putInt(slot.offset, 0);
+        } else if (slot.isText()) {
+            this.buffer.putInt(slot.offset, text.length + 1);
+            ByteBuffer target = this.buffer.duplicate();
+            target.position(slot.offset + 4);
+            target.put(text);
+        } else {
+            this.buffer.putInt(slot.offset, 1);
+            if (slot.capacity == 8)
+                this.buffer.putLong(slot.offset + 4, bits);
+            else
+                this.buffer.putInt(slot.offset + 4, (int) bits);
+        }
+
+        VERSION.setRelease(this.buffer, OFFSET_VERSION, version + 2);
+    }
+
+    private Slot slot(String name, ConfigElementType... types) {
+        Slot slot = this.slots.get(name);
+        if (slot == null)
+            throw new IllegalArgumentException("Unknown config element: " + name);
+        for (ConfigElementType type : types)
+            if (slot.type == type)
+                return slot;
+        throw new IllegalArgumentException("Config element " + name + " is of type " + slot.type);
+    }
+
+    /**
+     * Wartet höchstens {@link #MAX_WRITE_NANOS}, bis kein Schreibvorgang mehr läuft.
+     *
+     * @return Die aktuelle, gerade Version
+     * @throws IllegalStateException Sollte die Version so lange ungerade bleiben
+     */
+    private long evenVersion() {
+        long version = this.getVersion();
+        if ((version & 1) == 0)
+            return version;
+
+        long deadline = System.nanoTime() + MAX_WRITE_NANOS;
+        while (((version = this.getVersion()) & 1) != 0) {
+            if (System.nanoTime() - deadline > 0)
+                throw new IllegalStateException("The shared config segment is stuck in a write at version " + version);
+            Thread.onSpinWait();
+        }
+        return version;
+    }
+
+    /**
+     * Liest die 8 Bytes eines Wertes zwischen zwei gleichen, geraden Versionen.
+     *
+     * @return Der Wert oder {@link Long#MIN_VALUE} mit gesetztem {@code present[0] = false}, falls {@code null}
+     * @throws IllegalStateException Sollte ein Schreibvorgang nicht enden
+     */
+    private long readBits(Slot slot, boolean wide, boolean[] present) {
+        while (true) {
+            long before = this.evenVersion();
+            boolean p = this.buffer.getInt(slot.offset) != 0;
+            long bits = wide ? this.buffer.getLong(slot.offset + 4) : this.buffer.getInt(slot.offset + 4);
+            VarHandle.loadLoadFence();
+            if (before == (long) VERSION.getOpaque(this.buffer, OFFSET_VERSION)) {
+                present[0] = p;
+                return bits;
+            }
+        }
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#COUNT}
+     * @return Der Wert des Elements oder {@code null}
+     * @throws IllegalStateException Sollte der schreibende Prozess beim Schreiben stehen geblieben sein
+     */
+    public Integer getInt(String name) {
+        boolean[] present = new boolean[1];
+        long bits = this.readBits(this.slot(name, ConfigElementType.COUNT), false, present);
+        return present[0] ? (int) bits : null;
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#CHECK}
+     * @return Der Wert des Elements oder {@code null}
+     * @throws IllegalStateException Sollte der schreibende Prozess beim Schreiben stehen geblieben sein
+     */
+    public Boolean getBoolean(String name) {
+        boolean[] present = new boolean[1];
+        long bits = this.readBits(this.slot(name, ConfigElementType.CHECK), false, present);
+        return present[0] ? bits != 0 : null;
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#LONG}
+     * @return Der Wert des Elements oder {@code null}
+     * @throws IllegalStateException Sollte der schreibende Prozess beim Schreiben stehen geblieben sein
+     */
+    public Long getLong(String name) {
+        boolean[] present = new boolean[1];
+        long bits = this.readBits(this.slot(name, ConfigElementType.LONG), true, present);
+        return present[0] ? bits : null;
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#DOUBLE}
+     * @return Der Wert des Elements oder {@code null}
+     * @throws IllegalStateException Sollte der schreibende Prozess beim Schreiben stehen geblieben sein
+     */
+    public Double getDouble(String name) {
+        boolean[] present = new boolean[1];
+        long bits = this.readBits(this.slot(name, ConfigElementType.DOUBLE), true, present);
+        return present[0] ? Double.longBitsToDouble(bits) : null;
+    }
+
+    /**
+     * @param name Der Name eines Elements, dessen Wert als Text geteilt wird, also nicht vom Typ
+     * {@link ConfigElementType#COUNT}, {@link ConfigElementType#CHECK}, {@link ConfigElementType#LONG} oder
+     * {@link ConfigElementType#DOUBLE}
+     * @return Die {@link ConfigElementType#format(Object) Textdarstellung} des Wertes oder {@code null}
+     * @throws IllegalStateException Sollte der schreibende Prozess beim Schreiben stehen geblieben sein
+     */
+    public String getString(String name) {
+        Slot slot = this.slots.get(name);
+        if (slot == null || !slot.isText())
+            throw new IllegalArgumentException(slot == null ? "Unknown config element: " + name
+                    : "Config element " + name + " is of type " + slot.type);
+
+        byte[] bytes = new byte[slot.capacity];
+        while (true) {
+            long before = this.evenVersion();
+            // Während eines Schreibvorgangs kann die Länge ungültig sein, sie wird deshalb begrenzt
+            int length = Math.max(0, Math.min(this.buffer.getInt(slot.offset), slot.capacity + 1));
+            ByteBuffer source = this.buffer.duplicate();
+            source.position(slot.offset + 4);
+            source.get(bytes, 0, Math.max(0, length - 1));
+            VarHandle.loadLoadFence();
+            if (before == (long) VERSION.getOpaque(this.buffer, OFFSET_VERSION))
+                return length == 0 ? null : new String(bytes, 0, length - 1, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Beendet das Teilen der Werte beziehungsweise die lesende Verbindung. Die Datei bleibt bestehen.
+     *
+     * @throws IOException Sollte die Datei nicht geschlossen werden können
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.manager != null) {
+            this.manager.releaseSegment(this);
+            this.manager.removeChangeListener(this.listener);
+            for (Map.Entry<String, Slot> e : this.slots.entrySet())
+                if (e.getValue().isText())
+                    this.manager.removeVetoListener(e.getKey(), this.veto);
+        }
+        this.channel.close();
+    }
+
+    private static final class Slot {
+        private final ConfigElementType type;
+        private final int offset, capacity;
+
+        private Slot(ConfigElementType type, int offset, int capacity) {
+            this.type = type;
+            this.offset = offset;
+            this.capacity = capacity;
+        }
+
+        private boolean isText() {
+            return SharedConfigSegment.isText(this.type);
+        }
+    }
+}
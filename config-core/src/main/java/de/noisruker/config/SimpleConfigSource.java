@@ -0,0 +1,54 @@
+/*
+ * ConfigManager
+ * SimpleConfigSource.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import java.util.function.Function;
+
+/**
+ * Eine {@link ConfigSource Quelle}, die ihre Werte über eine Funktion bestimmt.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+final class SimpleConfigSource implements ConfigSource {
+
+    private final String name;
+    private final Function<ConfigDescriptor, String> values;
+
+    SimpleConfigSource(String name, Function<ConfigDescriptor, String> values) {
+        this.name = name;
+        this.values = values;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String get(ConfigDescriptor descriptor) {
+        return values.apply(descriptor);
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigSource{" + name + "}";
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * ConfigManager
+ * TenantConfig.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config;
+
+import de.noisruker.config.codec.ConfigCodecs;
+import de.noisruker.config.codec.ConfigRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Die Werte einer einzelnen Konfiguration zu einem geteilten {@link ConfigSchema Schema}. Anders als der
+ * {@link ConfigManager Konfigurations-Manager}, der seine Werte in statischen Feldern hält, können von
+ * dieser Klasse beliebig viele Instanzen nebeneinander existieren, zum Beispiel eine je Mandant.
+ * <p>
+ * Die Werte liegen gepackt in einem {@code int[]}, einem Bitfeld, einem {@code long[]} und einem
+ * {@code Object[]}, sodass eine Instanz nur wenige Bytes je Element belegt. Die Klasse ist nicht
+ * synchronisiert.
+ * <p>
+ * Wie der Konfigurations-Manager kann eine Instanz ihre Werte über die registrierten
+ * {@link de.noisruker.config.codec.ConfigCodec Formate} {@link #load(File) laden} und {@link #save(File) speichern}
+ * und benachrichtigt {@link #addChangeListener(ConfigChangeListener) Zuhörer} über jede Änderung. Die
+ * Sequenznummern der Änderungen zählt jede Instanz für sich. Prüfungen durch Veto-Zuhörer, der
+ * {@link de.noisruker.event.EventManager EventManager} und das Journal gelten nur für den Konfigurations-Manager.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ConfigSchema#newTenant()
+ */
+public final class TenantConfig {
+
+    private final ConfigSchema schema;
+    private final int[] ints;
+    private final long[] bits;
+    private final long[] wides;
+    private final Object[] refs;
+
+    /**
+     * Die Zuhörer dieser Konfiguration. Die Liste wird erst beim ersten Zuhörer angelegt, damit Instanzen ohne
+     * Zuhörer klein bleiben.
+     */
+    private List<ConfigChangeListener> changeListeners;
+    private long sequence;
+
+    TenantConfig(ConfigSchema schema, int[] ints, long[] bits, long[] wides, Object[] refs) {
+        this.schema = schema;
+        this.ints = ints;
+        this.bits = bits;
+        this.wides = wides;
+        this.refs = refs;
+    }
+
+    /**
+     * @return Das {@link ConfigSchema Schema} dieser Konfiguration
+     */
+    public ConfigSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return Eine unabhängige Kopie dieser Konfiguration
+     */
+    public TenantConfig copy() {
+        // Zuhörer und Sequenznummer gehören zur Instanz und werden nicht übernommen
+        return new TenantConfig(this.schema, this.ints.clone(), this.bits.clone(), this.wides.clone(), this.refs.clone());
+    }
+
+    private ConfigDescriptor descriptor(String name, ConfigElementType... types) {
+        ConfigDescriptor d = this.schema.getDescriptor(name);
+        if (d == null)
+            throw new IllegalArgumentException("Unknown config element: " + name);
+        for (ConfigElementType type : types)
+            if (d.getType() == type)
+                return d;
+        throw new IllegalArgumentException("Config element " + name + " is of type " + d.getType());
+    }
+
+    private int slot(String name, ConfigElementType... types) {
+        return this.schema.slot(this.descriptor(name, types));
+    }
+
+    /**
+     * Prüft einen Wert gegen die Grenzen und Optionen, die beim Erstellen des Schemas registriert waren.
+     *
+     * @throws IllegalArgumentException Sollte der Wert ungültig sein
+     */
+    private void validate(ConfigDescriptor d, Object value) {
+        String invalid = this.schema.validator(d).check(d.getType(), value);
+        if (invalid != null)
+            throw new IllegalArgumentException(d.getName() + ": " + invalid);
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#COUNT}
+     * @return Der Wert des Elements
+     */
+    public int getInt(String name) {
+        return this.ints[this.slot(name, ConfigElementType.COUNT)];
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#CHECK}
+     * @return Der Wert des Elements
+     */
+    public boolean getBoolean(String name) {
+        int slot = this.slot(name, ConfigElementType.CHECK);
+        return (this.bits[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#LONG}
+     * @return Der Wert des Elements
+     */
+    public long getLong(String name) {
+        return this.wides[this.slot(name, ConfigElementType.LONG)];
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#DOUBLE}
+     * @return Der Wert des Elements
+     */
+    public double getDouble(String name) {
+        return Double.longBitsToDouble(this.wides[this.slot(name, ConfigElementType.DOUBLE)]);
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#TEXT} oder {@link ConfigElementType#CHOOSE}
+     * @return Der Wert des Elements
+     */
+    public String getString(String name) {
+        ConfigDescriptor d = this.descriptor(name, ConfigElementType.TEXT, ConfigElementType.CHOOSE);
+        ConfigOptions options = this.schema.options(d);
+        int slot = this.schema.slot(d);
+        return options == null ? (String) this.refs[slot] : options.get(this.ints[slot]);
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#CHOOSE} mit registrierten {@link ConfigOptions Optionen}
+     * @return Die Ordinalzahl des Wertes oder {@code -1}, falls kein Wert gesetzt ist
+     */
+    public int getOrdinal(String name) {
+        return this.ints[this.ordinalSlot(name)];
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#CHOOSE} mit registrierten {@link ConfigOptions Optionen}
+     * @param ordinal Die Ordinalzahl der neuen Option
+     * @throws IllegalArgumentException Sollte die Ordinalzahl außerhalb der Optionen liegen
+     */
+    public void setOrdinal(String name, int ordinal) {
+        ConfigDescriptor d = this.descriptor(name, ConfigElementType.CHOOSE);
+        ConfigOptions options = this.schema.options(d);
+        if (options == null)
+            throw new IllegalArgumentException("Config element " + name + " has no registered options");
+        if (!options.contains(ordinal))
+            throw new IllegalArgumentException(ordinal + " is not in range [0, " + options.size() + ")");
+        this.ints[this.schema.slot(d)] = ordinal;
+        this.changed(d);
+    }
+
+    private int ordinalSlot(String name) {
+        ConfigDescriptor d = this.descriptor(name, ConfigElementType.CHOOSE);
+        if (this.schema.options(d) == null)
+            throw new IllegalArgumentException("Config element " + name + " has no registered options");
+        return this.schema.slot(d);
+    }
+
+    /**
+     * @param name Der Name des Elements
+     * @return Der Wert des Elements in dem zu seinem {@link ConfigElementType#getValueType() Typ} passenden Objekt
+     */
+    public Object get(String name) {
+        ConfigDescriptor d = this.descriptor(name, ConfigElementType.values());
+        int slot = this.schema.slot(d);
+        switch (d.getType()) {
+            case COUNT:
+                return this.ints[slot];
+            case CHECK:
+                return (this.bits[slot >>> 6] & (1L << slot)) != 0;
+            case LONG:
+                return this.wides[slot];
+            case DOUBLE:
+                return Double.longBitsToDouble(this.wides[slot]);
+            case CHOOSE:
+                ConfigOptions options = this.schema.options(d);
+                return options == null ? this.refs[slot] : options.get(this.ints[slot]);
+            default:
+                return this.refs[slot];
+        }
+    }
+
+    /**
+     * @param name Der Name des Elements
+     * @param type Die Klasse des Wertes
+     * @param <T> Der Typ des Wertes
+     * @return Der Wert des Elements
+     * @throws ClassCastException Sollte der Wert nicht vom Typ {@code type} sein
+     */
+    public <T> T get(String name, Class<T> type) {
+        return type.cast(this.get(name));
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#COUNT}
+     * @param value Der neue Wert des Elements
+     * @throws IllegalArgumentException Sollte der Wert außerhalb der registrierten Grenzen liegen
+     */
+    public void setInt(String name, int value) {
+        ConfigDescriptor d = this.descriptor(name, ConfigElementType.COUNT);
+        this.validate(d, value);
+        this.ints[this.schema.slot(d)] = value;
+        this.changed(d);
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#CHECK}
+     * @param value Der neue Wert des Elements
+     */
+    public void setBoolean(String name, boolean value) {
+        ConfigDescriptor d = this.descriptor(name, ConfigElementType.CHECK);
+        int slot = this.schema.slot(d);
+        if (value)
+            this.bits[slot >>> 6] |= 1L << slot;
+        else
+            this.bits[slot >>> 6] &= ~(1L << slot);
+        this.changed(d);
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#LONG}
+     * @param value Der neue Wert des Elements
+     */
+    public void setLong(String name, long value) {
+        ConfigDescriptor d = this.descriptor(name, ConfigElementType.LONG);
+        this.wides[this.schema.slot(d)] = value;
+        this.changed(d);
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#DOUBLE}
+     * @param value Der neue Wert des Elements
+     */
+    public void setDouble(String name, double value) {
+        ConfigDescriptor d = this.descriptor(name, ConfigElementType.DOUBLE);
+        this.wides[this.schema.slot(d)] = Double.doubleToRawLongBits(value);
+        this.changed(d);
+    }
+
+    /**
+     * @param name Der Name eines Elements vom Typ {@link ConfigElementType#TEXT} oder {@link ConfigElementType#CHOOSE}
+     * @param value Der neue Wert des Elements
+     * @throws IllegalArgumentException Sollte der Wert keine der registrierten Optionen sein
+     */
+    public void setString(String name, String value) {
+        ConfigDescriptor d = this.descriptor(name, ConfigElementType.TEXT, ConfigElementType.CHOOSE);
+        this.validate(d, value);
+        store(d.getType(), this.schema.options(d), this.schema.slot(d), value, this.ints, this.bits, this.wides, this.refs);
+        this.changed(d);
+    }
+
+    /**
+     * Setzt den Wert eines Elements.
+     *
+     * @param name Der Name des Elements
+     * @param value Der neue Wert in dem zum {@link ConfigElementType#getValueType() Typ} des Elements passenden Objekt
+     * @throws ClassCastException Sollte der Wert nicht zum Typ des Elements passen
+     * @throws IllegalArgumentException Sollte der Wert außerhalb der registrierten Grenzen oder Optionen liegen
+     */
+    public void setValue(String name, Object value) {
+        ConfigDescriptor d = this.descriptor(name, ConfigElementType.values());
+        if (value != null && !d.getType().getValueType().isInstance(value))
+            throw new ClassCastException(value.getClass().getName() + " is not a value of type " + d.getType());
+        this.validate(d, value);
+        store(d.getType(), this.schema.options(d), this.schema.slot(d), value, this.ints, this.bits, this.wides, this.refs);
+        this.changed(d);
+    }
+
+    /**
+     * Setzt den Wert eines Elements aus seiner Textdarstellung, wie sie auch in Konfigurationsdateien steht.
+     * Der Text wird dabei einmalig über {@link ConfigElementType#parse(String, Class)} umgewandelt.
+     *
+     * @param name Der Name des Elements
+     * @param value Der neue Wert des Elements als Text
+     * @throws IllegalArgumentException Sollte der Text nicht zum Typ des Elements passen oder der Wert ungültig sein
+     */
+    public void set(String name, String value) {
+        this.apply(this.descriptor(name, ConfigElementType.values()), value);
+    }
+
+    /**
+     * Wandelt den Text um, prüft und setzt den Wert und benachrichtigt die Zuhörer.
+     *
+     * @throws IllegalArgumentException Sollte der Text nicht zum Typ des Elements passen oder der Wert ungültig sein
+     */
+    private void apply(ConfigDescriptor d, String value) {
+        Object parsed = d.getType().parse(value, d.getField().getType());
+        this.validate(d, parsed);
+        store(d.getType(), this.schema.options(d), this.schema.slot(d), parsed, this.ints, this.bits, this.wides, this.refs);
+        this.changed(d);
+    }
+
+    /**
+     * Fügt einen Zuhörer hinzu, der bei jeder Änderung eines Wertes dieser Konfiguration im ändernden Thread
+     * aufgerufen wird.
+     *
+     * @param listener Der Zuhörer
+     */
+    public void addChangeListener(ConfigChangeListener listener) {
+        if (this.changeListeners == null)
+            this.changeListeners = new ArrayList<>(2);
+        this.changeListeners.add(listener);
+    }
+
+    /**
+     * @param listener Der zu entfernende Zuhörer
+     * @return Ob der Zuhörer registriert war
+     */
+    public boolean removeChangeListener(ConfigChangeListener listener) {
+        return this.changeListeners != null && this.changeListeners.remove(listener);
+    }
+
+    /**
+     * @return Die Sequenznummer der letzten Änderung dieser Konfiguration oder {@code 0}, falls noch keine erfolgt ist
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    private void changed(ConfigDescriptor d) {
+        long seq = ++this.sequence;
+        if (this.changeListeners == null || this.changeListeners.isEmpty())
+            return;
+        ConfigChange change = new ConfigChange(seq, d.getFieldName(), d.getType(), d.getType().format(this.get(d.getName())));
+        for (ConfigChangeListener listener : this.changeListeners.toArray(new ConfigChangeListener[0]))
+            listener.onChange(change);
+    }
+
+    /**
+     * Liest die Werte aus einer Konfigurationsdatei in dem zur Endung passenden
+     * {@link de.noisruker.config.codec.ConfigCodec Format}. Einträge, die nicht zum Schema gehören, werden
+     * übersprungen, ungültige Werte protokolliert und übersprungen, wie beim
+     * {@link ConfigManager#load(String) Konfigurations-Manager}.
+     *
+     * @param input Die einzulesende Datei
+     * @throws IOException Sollte ein Fehler beim Einlesen der Datei auftreten
+     */
+    public void load(File input) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(input.toPath()))) {
+            ConfigCodecs.forFile(input.getName()).read(in, (fieldName, value) -> {
+                ConfigDescriptor d = this.schema.getDescriptorByFieldName(fieldName);
+                if (d == null)
+                    return;
+                try {
+                    this.apply(d, value);
+                } catch (IllegalArgumentException e) {
+                    LOGGER.log(Level.WARNING, "Konnte " + d.getName() + " nicht auf " + value + " setzen!", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Schreibt die Werte dieser Konfiguration in dem zur Endung passenden
+     * {@link de.noisruker.config.codec.ConfigCodec Format}. Die Datei wird zuerst in eine temporäre Datei
+     * geschrieben und dann ersetzt.
+     *
+     * @param output Die Datei, in die geschrieben wird
+     * @throws IOException Sollte es nicht möglich sein, an den angegebenen Pfad zu schreiben
+     */
+    public void save(File output) throws IOException {
+        List<ConfigRecord> records = new ArrayList<>(this.schema.size());
+        for (ConfigDescriptor d : this.schema.getDescriptors())
+            records.add(new ConfigRecord(d.getFieldName(), d.getType().format(this.get(d.getName())), d.getDefaultValue(), d.getType().getTypeName()));
+
+        Path target = output.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            ConfigCodecs.forFile(output.getName()).write(records, out);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Schreibt einen bereits umgewandelten Wert in das zu seinem Typ passende Feld. Bei einem Element mit
+     * {@link ConfigOptions Optionen} wird dessen Ordinalzahl gespeichert.
+     *
+     * @throws IllegalArgumentException Sollte der Wert keine der Optionen sein
+     */
+    static void store(ConfigElementType type, ConfigOptions options, int slot, Object value, int[] ints, long[] bits, long[] wides, Object[] refs) {
+        if (options != null) {
+            int ordinal = options.ordinalOf((String) value);
+            if (ordinal < 0 && value != null)
+                throw new IllegalArgumentException(value + " is not one of the registered options");
+            ints[slot] = ordinal;
+            return;
+        }
+        switch (type) {
+            case COUNT:
+                ints[slot] = value == null ? 0 : (Integer) value;
+                break;
+            case CHECK:
+                if (value != null && (Boolean) value)
+                    bits[slot >>> 6] |= 1L << slot;
+                else
+                    bits[slot >>> 6] &= ~(1L << slot);
+                break;
+            case LONG:
+                wides[slot] = value == null ? 0 : (Long) value;
+                break;
+            case DOUBLE:
+                wides[slot] = Double.doubleToRawLongBits(value == null ? 0 : (Double) value);
+                break;
+            default:
+                refs[slot] = value;
+        }
+    }
+
+    /**
+     * @return Die Werte aller Elemente in ihrer Textdarstellung
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("TenantConfig{");
+        for (ConfigDescriptor d : this.schema.getDescriptors()) {
+            if (sb.length() > "TenantConfig{".length())
+                sb.append(", ");
+            sb.append(d.getName()).append('=').append(d.getType().format(this.get(d.getName())));
+        }
+        return sb.append('}').toString();
+    }
+}
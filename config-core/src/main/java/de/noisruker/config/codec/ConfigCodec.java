@@ -0,0 +1,63 @@
+/*
+ * ConfigManager
+ * ConfigCodec.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.BiConsumer;
+
+/**
+ * Ein Format, in dem der {@link de.noisruker.config.ConfigManager Konfigurations-Manager} Konfigurationsdateien
+ * lesen und schreiben kann. Implementierungen werden über den {@link java.util.ServiceLoader} gefunden und
+ * anhand der Dateiendung ausgewählt, siehe {@link ConfigCodecs#forFile(String)}.
+ * <p>
+ * Implementierungen sollen direkt in den übergebenen Stream schreiben und aus ihm lesen, ohne zuvor ein
+ * vollständiges Dokument im Speicher aufzubauen.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public interface ConfigCodec {
+
+    /**
+     * @return Die Dateiendungen ohne Punkt, für die dieses Format verwendet wird, zum Beispiel {@code "json"}
+     */
+    String[] getExtensions();
+
+    /**
+     * Schreibt alle Einträge in den Stream. Der Stream wird nicht geschlossen.
+     *
+     * @param records Die zu schreibenden Einträge
+     * @param out Der Stream, in den geschrieben wird
+     * @throws IOException Sollte ein Fehler beim Schreiben auftreten
+     */
+    void write(Iterable<ConfigRecord> records, OutputStream out) throws IOException;
+
+    /**
+     * Liest alle Einträge aus dem Stream. Der Stream wird nicht geschlossen.
+     *
+     * @param in Der Stream, aus dem gelesen wird
+     * @param fieldConsumer Wird für jeden Eintrag mit dem Namen des Feldes und dem Wert als Text aufgerufen, der
+     * {@code null} ist, falls das Format einen fehlenden Wert ausdrücken kann
+     * @throws IOException Sollte ein Fehler beim Lesen auftreten oder die Datei nicht dem Format entsprechen
+     */
+    void read(InputStream in, BiConsumer<String, String> fieldConsumer) throws IOException;
+}
@@ -0,0 +1,82 @@
+/*
+ * ConfigManager
+ * ConfigCodecs.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.codec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceLoader;
+
+/**
+ * Findet die über den {@link ServiceLoader} bereitgestellten {@link ConfigCodec Formate}.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public final class ConfigCodecs {
+
+    /**
+     * Das Format, das verwendet wird, wenn kein Format zur Dateiendung passt.
+     */
+    private static final ConfigCodec DEFAULT = new XmlConfigCodec();
+
+    private static volatile List<ConfigCodec> codecs;
+
+    private ConfigCodecs() {
+    }
+
+    /**
+     * @return Alle gefundenen Formate
+     */
+    public static List<ConfigCodec> getCodecs() {
+        List<ConfigCodec> result = codecs;
+        if (result == null) {
+            result = new ArrayList<>();
+            for (ConfigCodec codec : ServiceLoader.load(ConfigCodec.class, ConfigCodecs.class.getClassLoader()))
+                result.add(codec);
+            codecs = result = Collections.unmodifiableList(result);
+        }
+        return result;
+    }
+
+    /**
+     * @param extension Die Dateiendung ohne Punkt
+     * @return Das Format für die Endung oder {@code null}, falls keines vorhanden
+     */
+    public static ConfigCodec forExtension(String extension) {
+        for (ConfigCodec codec : getCodecs())
+            for (String e : codec.getExtensions())
+                if (e.equalsIgnoreCase(extension))
+                    return codec;
+        return null;
+    }
+
+    /**
+     * @param fileName Der Name oder Pfad der Datei
+     * @return Das Format für die Endung der Datei, oder das XML-Format, falls keines passt
+     */
+    public static ConfigCodec forFile(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        ConfigCodec codec = dot < 0 || dot < Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) ? null
+                : forExtension(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+        return codec == null ? DEFAULT : codec;
+    }
+}
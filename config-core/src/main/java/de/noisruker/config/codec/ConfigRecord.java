@@ -0,0 +1,72 @@
+/*
+ * ConfigManager
+ * ConfigRecord.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.codec;
+
+/**
+ * Ein einzelner Eintrag einer Konfigurationsdatei, wie er von einem {@link ConfigCodec} geschrieben wird.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public final class ConfigRecord {
+
+    private final String name, value, defaultValue, type;
+
+    /**
+     * @param name Der Name des Feldes
+     * @param value Der Wert als Text
+     * @param defaultValue Der Standardwert als Text
+     * @param type Der {@link de.noisruker.config.ConfigElementType#getTypeName() Name des Typs}
+     */
+    public ConfigRecord(String name, String value, String defaultValue, String type) {
+        this.name = name;
+        this.value = value;
+        this.defaultValue = defaultValue;
+        this.type = type;
+    }
+
+    /**
+     * @return Der Name des Feldes
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Der Wert als Text
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return Der Standardwert als Text
+     */
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * @return Der {@link de.noisruker.config.ConfigElementType#getTypeName() Name des Typs}
+     */
+    public String getType() {
+        return type;
+    }
+}
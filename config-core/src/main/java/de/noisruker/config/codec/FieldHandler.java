@@ -17,13 +17,13 @@
  * along with this program. If not, see <https://www.gnu.org/licenses/>.
  */
 
-package de.noisruker.config;
+package de.noisruker.config.codec;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.Locator;
 
-import java.lang.reflect.Field;
+import java.util.function.BiConsumer;
 
 /**
  * Diese Klasse organisiert das Einlesen der Config Datei.
@@ -31,21 +31,38 @@ import java.lang.reflect.Field;
  * @author Fabius Mettner
  * @version 1.0
  * @see ContentHandler
- * @see ConfigManager#load(String)
+ * @see XmlConfigCodec
  */
 class FieldHandler implements ContentHandler {
 
     /**
      * Zwischenspeicherung für die einzulesenden Daten.
      */
-    private String value, defaultValue, type, name, currentValue;
+    private String value, defaultValue, type, name;
+
+    /**
+     * Der Text des aktuell eingelesenen Elements. Der Parser darf diesen in mehreren Teilen übergeben.
+     */
+    private final StringBuilder currentValue = new StringBuilder();
+
+    /**
+     * Erhält für jedes eingelesene Feld dessen Namen und Wert.
+     */
+    private final BiConsumer<String, String> fieldConsumer;
+
+    /**
+     * @param fieldConsumer Wird für jedes eingelesene Feld mit dessen Namen und Wert aufgerufen
+     */
+    FieldHandler(BiConsumer<String, String> fieldConsumer) {
+        this.fieldConsumer = fieldConsumer;
+    }
 
     /**
      * Speichert die eingelesenden Werte zur Bearbeitung.
      */
     @Override
     public void characters(char[] arg0, int arg1, int arg2) {
-        currentValue = new String(arg0, arg1, arg2);
+        currentValue.append(arg0, arg1, arg2);
     }
 
     @Override
@@ -54,42 +71,22 @@ class FieldHandler implements ContentHandler {
     }
 
     /**
-     * Lädt die Daten in das Programm.
+     * Gibt die Daten an den {@link #fieldConsumer} weiter.
      */
     @Override
     public void endElement(String arg0, String arg1, String arg2) {
         if (arg1.equals("name"))
-            name = currentValue;
+            name = currentValue.toString();
         if (arg1.equals("value"))
-            value = currentValue;
+            value = currentValue.toString();
         if (arg1.equals("default"))
-            defaultValue = currentValue;
+            defaultValue = currentValue.toString();
         if (arg1.equals("type"))
-            type = currentValue;
-
-        if (arg1.equals("field")) {
-            Field f = ConfigManager.getInstance().getField(name);
-            if (f == null)
-                return;
-
-            boolean a = f.isAccessible();
-            f.setAccessible(true);
-            try {
-
-                ConfigElement e = f.getAnnotation(ConfigElement.class);
-
-                if (e.type().equals(ConfigElementType.COUNT))
-                    f.set(this, Integer.parseInt(value));
-                else if (e.type().equals(ConfigElementType.CHECK))
-                    f.set(this, Boolean.parseBoolean(value));
-                else
-                    f.set(this, value);
-
-                ConfigManager.getInstance().onConfigChanged(e.name(), value);
-            } catch (IllegalArgumentException | IllegalAccessException e) {
-                e.printStackTrace();
-            }
-            f.setAccessible(a);
+            type = currentValue.toString();
+
+        if (arg1.equals("field") && name != null) {
+            fieldConsumer.accept(name, value);
+            name = value = null;
         }
 
     }
@@ -126,7 +123,7 @@ class FieldHandler implements ContentHandler {
 
     @Override
     public void startElement(String arg0, String arg1, String arg2, Attributes arg3) {
-
+        currentValue.setLength(0);
     }
 
     @Override
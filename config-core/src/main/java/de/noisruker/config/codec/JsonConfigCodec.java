@@ -0,0 +1,231 @@
+/*
+ * ConfigManager
+ * JsonConfigCodec.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.codec;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Ein JSON-Format, das alle Felder als ein flaches Objekt aus Feldname und Wert schreibt:
+ * <pre>{@code
+ * {
+ *   "volume": 10,
+ *   "fullscreen": true,
+ *   "language": "de"
+ * }
+ * }</pre>
+ * Zahlen und Wahrheitswerte werden ohne Anführungszeichen geschrieben, alle anderen Werte als maskierte
+ * Zeichenketten. Beim Lesen wird jeder Wert wieder als Text an den Konfigurations-Manager übergeben.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public class JsonConfigCodec implements ConfigCodec {
+
+    private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+    @Override
+    public String[] getExtensions() {
+        return new String[]{"json"};
+    }
+
+    @Override
+    public void write(Iterable<ConfigRecord> records, OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        w.write('{');
+        boolean first = true;
+        for (ConfigRecord r : records) {
+            w.write(first ? "\n  " : ",\n  ");
+            first = false;
+            string(w, r.getName());
+            w.write(": ");
+            writeValue(w, r);
+        }
+        w.write(first ? "}" : "\n}");
+        w.write('\n');
+        w.flush();
+    }
+
+    private static void writeValue(Writer w, ConfigRecord r) throws IOException {
+        String value = r.getValue(), type = r.getType();
+        if ("check".equals(type) && ("true".equals(value) || "false".equals(value)))
+            w.write(value);
+        else if (("count".equals(type) || "long".equals(type) || "double".equals(type)) && value != null && NUMBER.matcher(value).matches())
+            w.write(value);
+        else
+            string(w, value);
+    }
+
+    /**
+     * Schreibt den Text als maskierte JSON-Zeichenkette.
+     */
+    static void string(Writer w, String text) throws IOException {
+        if (text == null) {
+            w.write("null");
+            return;
+        }
+        w.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    w.write("\\\"");
+                    break;
+                case '\\':
+                    w.write("\\\\");
+                    break;
+                case '\n':
+                    w.write("\\n");
+                    break;
+                case '\r':
+                    w.write("\\r");
+                    break;
+                case '\t':
+                    w.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        String hex = Integer.toHexString(c);
+                        w.write("\\u");
+                        for (int j = hex.length(); j < 4; j++)
+                            w.write('0');
+                        w.write(hex);
+                    } else
+                        w.write(c);
+            }
+        }
+        w.write('"');
+    }
+
+    @Override
+    public void read(InputStream in, BiConsumer<String, String> fieldConsumer) throws IOException {
+        Reader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int c = skipWhitespace(r);
+        if (c != '{')
+            throw new IOException("Expected '{' at the start of the config");
+
+        c = skipWhitespace(r);
+        if (c == '}')
+            return;
+        while (true) {
+            if (c != '"')
+                throw new IOException("Expected a field name");
+            String name = readString(r);
+            if (skipWhitespace(r) != ':')
+                throw new IOException("Expected ':' after " + name);
+
+            c = skipWhitespace(r);
+            String value;
+            if (c == '"') {
+                value = readString(r);
+                c = skipWhitespace(r);
+            } else if (c == '{' || c == '[') {
+                throw new IOException("Nested values are not supported: " + name);
+            } else {
+                StringBuilder literal = new StringBuilder();
+                while (c != -1 && c != ',' && c != '}' && !Character.isWhitespace(c)) {
+                    literal.append((char) c);
+                    c = r.read();
+                }
+                if (Character.isWhitespace(c))
+                    c = skipWhitespace(r);
+                if (literal.length() == 0)
+                    throw new IOException("Missing value for " + name);
+                value = "null".contentEquals(literal) ? null : literal.toString();
+            }
+            fieldConsumer.accept(name, value);
+
+            if (c == '}')
+                return;
+            if (c != ',')
+                throw new IOException("Expected ',' or '}' after " + name);
+            c = skipWhitespace(r);
+        }
+    }
+
+    private static int skipWhitespace(Reader r) throws IOException {
+        int c;
+        do {
+            c = r.read();
+        } while (c != -1 && Character.isWhitespace(c));
+        return c;
+    }
+
+    private static String readString(Reader r) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            int c = r.read();
+            if (c == -1)
+                throw new IOException("Unterminated string");
+            if (c == '"')
+                return sb.toString();
+            if (c != '\\') {
+                sb.append((char) c);
+                continue;
+            }
+            c = r.read();
+            switch (c) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    char[] hex = new char[4];
+                    for (int i = 0; i < 4; i++) {
+                        int h = r.read();
+                        if (h == -1)
+                            throw new IOException("Unterminated unicode escape");
+                        hex[i] = (char) h;
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(new String(hex), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Invalid unicode escape: " + new String(hex), e);
+                    }
+                    break;
+                case -1:
+                    throw new IOException("Unterminated string");
+                default:
+                    sb.append((char) c);
+            }
+        }
+    }
+}
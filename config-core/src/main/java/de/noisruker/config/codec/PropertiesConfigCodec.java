@@ -0,0 +1,110 @@
+/*
+ * ConfigManager
+ * PropertiesConfigCodec.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.codec;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.function.BiConsumer;
+
+/**
+ * Das {@code .properties}-Format mit einer Zeile {@code feldname=wert} je Feld. Die Datei wird in UTF-8
+ * geschrieben, Schlüssel und Werte werden wie von {@link Properties#load(java.io.Reader)} erwartet maskiert.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public class PropertiesConfigCodec implements ConfigCodec {
+
+    @Override
+    public String[] getExtensions() {
+        return new String[]{"properties"};
+    }
+
+    @Override
+    public void write(Iterable<ConfigRecord> records, OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        for (ConfigRecord r : records) {
+            escape(w, r.getName(), true);
+            w.write('=');
+            escape(w, r.getValue(), false);
+            w.write('\n');
+        }
+        w.flush();
+    }
+
+    private static void escape(Writer w, String text, boolean key) throws IOException {
+        if (text == null)
+            return;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    w.write("\\\\");
+                    break;
+                case '\n':
+                    w.write("\\n");
+                    break;
+                case '\r':
+                    w.write("\\r");
+                    break;
+                case '\t':
+                    w.write("\\t");
+                    break;
+                case '\f':
+                    w.write("\\f");
+                    break;
+                case ' ':
+                    if (key || i == 0)
+                        w.write('\\');
+                    w.write(c);
+                    break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    w.write('\\');
+                    w.write(c);
+                    break;
+                default:
+                    w.write(c);
+            }
+        }
+    }
+
+    @Override
+    public void read(InputStream in, BiConsumer<String, String> fieldConsumer) throws IOException {
+        // Properties#load ruft für jede Zeile put auf, sodass die Einträge in der Reihenfolge der Datei ankommen
+        Properties properties = new Properties() {
+            @Override
+            public synchronized Object put(Object key, Object value) {
+                fieldConsumer.accept((String) key, (String) value);
+                return null;
+            }
+        };
+        properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+}
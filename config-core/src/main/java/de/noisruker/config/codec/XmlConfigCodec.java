@@ -0,0 +1,136 @@
+/*
+ * ConfigManager
+ * XmlConfigCodec.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.codec;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+/**
+ * Das XML-Format, wie es unter {@link de.noisruker.config.ConfigManager#load(String)} beschrieben ist. Alle
+ * Texte werden beim Schreiben maskiert, sodass auch Werte mit {@code <} oder {@code &} wieder einlesbar sind.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public class XmlConfigCodec implements ConfigCodec {
+
+    @Override
+    public String[] getExtensions() {
+        return new String[]{"xml", "cfg"};
+    }
+
+    @Override
+    public void write(Iterable<ConfigRecord> records, OutputStream out) throws IOException {
+        BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        bw.append("<config>");
+        bw.newLine();
+        bw.append(" <fields>");
+        bw.newLine();
+
+        for (ConfigRecord r : records) {
+            bw.append("  <field>");
+            bw.newLine();
+
+            bw.append("   <parameter>");
+            bw.newLine();
+
+            element(bw, "name", r.getName());
+            element(bw, "value", r.getValue());
+            element(bw, "default", r.getDefaultValue());
+            element(bw, "type", r.getType());
+
+            bw.append("   </parameter>");
+            bw.newLine();
+
+            bw.append("  </field>");
+            bw.newLine();
+        }
+
+        bw.append(" </fields>");
+        bw.newLine();
+
+        bw.append("</config>");
+        bw.flush();
+    }
+
+    private static void element(BufferedWriter bw, String tag, String text) throws IOException {
+        bw.append("    <").append(tag).append('>');
+        escape(bw, text);
+        bw.append("</").append(tag).append('>');
+        bw.newLine();
+    }
+
+    /**
+     * Schreibt den Text mit maskierten XML-Sonderzeichen.
+     *
+     * @param w Das Ziel
+     * @param text Der zu schreibende Text
+     * @throws IOException Sollte ein Fehler beim Schreiben auftreten
+     */
+    static void escape(Writer w, String text) throws IOException {
+        if (text == null)
+            return;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    w.write("&lt;");
+                    break;
+                case '>':
+                    w.write("&gt;");
+                    break;
+                case '&':
+                    w.write("&amp;");
+                    break;
+                case '"':
+                    w.write("&quot;");
+                    break;
+                case '\'':
+                    w.write("&apos;");
+                    break;
+                default:
+                    w.write(c);
+            }
+        }
+    }
+
+    @Override
+    public void read(InputStream in, BiConsumer<String, String> fieldConsumer) throws IOException {
+        try {
+            XMLReader xmlReader = XMLReaderFactory.createXMLReader();
+            xmlReader.setContentHandler(new FieldHandler(fieldConsumer));
+            xmlReader.parse(new InputSource(in));
+        } catch (SAXException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * ConfigManager
+ * ConfigValueChangeAllowedEvent.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.event;
+
+import de.noisruker.config.ConfigElementType;
+import de.noisruker.event.events.Event;
+
+/**
+ * Dieses Event wird immer dann ausgelöst, wenn ein Konfigurationswert geändert werden soll. Anders als das
+ * {@link ConfigChangeAllowedEvent} enthält es den jetzigen und den neuen Wert in ihrem eigentlichen Typ. Ist
+ * der Wert nicht valide, kann er über aufruf der Methode {@link #denyChange(String)} verboten werden!
+ *
+ * @param <T> Der Typ des Konfigurationswertes
+ * @author Juhu1705
+ * @version 1.0
+ */
+public class ConfigValueChangeAllowedEvent<T> extends Event<String> {
+
+    private final String entryName;
+    private final ConfigElementType entryType;
+    private final T entryValue, newEntryValue;
+
+    /**
+     * @param entryName Der Name des zu ändernden Eigenschaft
+     * @param entryType Der Typ der zu ändernden Eigenschaft
+     * @param entryValue Der jetzige Wert der Eigenschaft
+     * @param newEntryValue Der neu zu setzende Wert der Eigenschaft
+     */
+    public ConfigValueChangeAllowedEvent(String entryName, ConfigElementType entryType, T entryValue, T newEntryValue) {
+        super("ConfigValueChangeAllowed");
+        this.entryName = entryName;
+        this.entryType = entryType;
+        this.entryValue = entryValue;
+        this.newEntryValue = newEntryValue;
+    }
+
+    /**
+     * @return Den Namen der zu änderten Konfigurationseigenschaft
+     */
+    public String getEntryName() {
+        return entryName;
+    }
+
+    /**
+     * @return Der Typ der Konfigurationseigenschaft
+     */
+    public ConfigElementType getEntryType() {
+        return entryType;
+    }
+
+    /**
+     * @return Der jetzige Wert der Konfigurationseigenschaft
+     */
+    public T getEntryValue() {
+        return entryValue;
+    }
+
+    /**
+     * @return Den Wert zu dem die Eigenschaft geändert werden soll
+     */
+    public T getNewEntryValue() {
+        return newEntryValue;
+    }
+
+    /**
+     * Verbietet die Änderung des Wertes
+     * @param description Eine kurze Beschreibung wieso dieser Wert verboten wurde.
+     */
+    public void denyChange(String description) {
+        super.setResult(description);
+    }
+
+    /**
+     * @return Ob die änderung momentan erlaubt ist
+     */
+    public boolean isAllowed() {
+        return super.getResult() == null;
+    }
+
+    /**
+     * Erlaubt die Änderung des Konfigurationswertes
+     */
+    public void allowChange() {
+        super.setResult(null);
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * ConfigManager
+ * ConfigValueChangeEvent.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.event;
+
+import de.noisruker.config.ConfigElementType;
+import de.noisruker.event.events.Event;
+
+/**
+ * Dieses Event wird immer dann ausgelöst, wenn ein Konfigurationswert geändert wurde. Anders als das
+ * {@link ConfigEntryChangeEvent} enthält es den vorherigen und den neuen Wert in ihrem eigentlichen Typ,
+ * sodass Zuhörer diese nicht erneut aus Text umwandeln müssen.
+ *
+ * @param <T> Der Typ des Konfigurationswertes
+ * @author Juhu1705
+ * @version 1.0
+ */
+public class ConfigValueChangeEvent<T> extends Event<Void> {
+
+    private final String entryName;
+    private final ConfigElementType entryType;
+    private final T previousValue, newValue;
+
+    /**
+     * @param entryName Der Name der geänderten Eigenschaft
+     * @param entryType Der Typ der geänderten Eigenschaft
+     * @param previousValue Der vorherige Wert der Eigenschaft oder {@code null}, falls dieser unbekannt ist
+     * @param newValue Der neue Wert der Eigenschaft
+     */
+    public ConfigValueChangeEvent(String entryName, ConfigElementType entryType, T previousValue, T newValue) {
+        super("ConfigValueChange");
+        this.entryName = entryName;
+        this.entryType = entryType;
+        this.previousValue = previousValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * @return Der Name des Konfigurationswertes
+     */
+    public String getEntryName() {
+        return entryName;
+    }
+
+    /**
+     * @return Der Typ des Konfigurationswertes
+     */
+    public ConfigElementType getEntryType() {
+        return entryType;
+    }
+
+    /**
+     * @return Der vorherige Wert oder {@code null}, falls dieser unbekannt ist
+     */
+    public T getPreviousValue() {
+        return previousValue;
+    }
+
+    /**
+     * @return Der neue Wert
+     */
+    public T getNewValue() {
+        return newValue;
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * ConfigManager
+ * ConfigChangeEvent.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Event für die Verteilung einer Änderung eines Konfigurationselements über
+ * {@link de.noisruker.config.ConfigManager#onConfigChanged(String, String)}.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+@Name("de.noisruker.config.Change")
+@Label("Config Change")
+@Category({"ConfigManager"})
+@Description("Notifying listeners about a changed configuration entry")
+public final class ConfigChangeEvent extends Event {
+
+    @Label("Entry Name")
+    public String entryName;
+
+    @Label("Entry Type")
+    public String entryType;
+
+    @Label("Bytes")
+    @DataAmount
+    @Description("Length of the new value in UTF-8")
+    public long bytes;
+
+}
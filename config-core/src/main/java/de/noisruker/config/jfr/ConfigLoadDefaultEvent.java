@@ -0,0 +1,48 @@
+/*
+ * ConfigManager
+ * ConfigLoadDefaultEvent.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Event für das Setzen der Standardwerte über
+ * {@link de.noisruker.config.ConfigManager#loadDefault()}.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+@Name("de.noisruker.config.LoadDefault")
+@Label("Config Load Default")
+@Category({"ConfigManager"})
+@Description("Applying the default values of all unset configuration entries")
+public final class ConfigLoadDefaultEvent extends Event {
+
+    @Label("Entries")
+    public int entries;
+
+    @Label("Applied")
+    @Description("Number of entries that were set to their default value")
+    public int applied;
+
+}
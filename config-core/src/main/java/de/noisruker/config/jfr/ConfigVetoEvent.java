@@ -0,0 +1,53 @@
+/*
+ * ConfigManager
+ * ConfigVetoEvent.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Event für eine Veto-Runde über das
+ * {@link de.noisruker.config.event.ConfigChangeAllowedEvent}.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+@Name("de.noisruker.config.Veto")
+@Label("Config Veto")
+@Category({"ConfigManager"})
+@Description("Asking listeners whether a configuration entry may change")
+public final class ConfigVetoEvent extends Event {
+
+    @Label("Entry Name")
+    public String entryName;
+
+    @Label("Entry Type")
+    public String entryType;
+
+    @Label("Denied")
+    public boolean denied;
+
+    @Label("Reason")
+    public String reason;
+
+}
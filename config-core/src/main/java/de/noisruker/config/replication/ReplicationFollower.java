@@ -0,0 +1,204 @@
+/*
+ * ConfigManager
+ * ReplicationFollower.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.replication;
+
+import de.noisruker.config.ConfigLayers;
+import de.noisruker.config.ConfigManager;
+import de.noisruker.config.ConfigSource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Übernimmt die Werte eines {@link ReplicationLeader Leiters} in einen lokalen
+ * {@link ConfigManager Konfigurations-Manager}. Die empfangenen Werte bilden die oberste
+ * {@link ConfigLayers Ebene} mit dem Namen {@link #LAYER}, sodass lokale Dateien und Standardwerte nur für
+ * Elemente gelten, die der Leiter nicht kennt.
+ * <p>
+ * Bricht die Verbindung ab, verbindet sich der Folger erneut und fordert die Änderungen seit der zuletzt
+ * übernommenen Sequenznummer an. Als abgebrochen gilt die Verbindung auch, wenn über mehrere
+ * {@link ReplicationProtocol#HEARTBEAT Heartbeats} hinweg keine Nachricht eintrifft. Wurde der Leiter inzwischen neu gestartet, erhält er stattdessen ein neues Abbild.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ReplicationLeader
+ */
+public final class ReplicationFollower implements Closeable {
+
+    /**
+     * Der Name der {@link ConfigLayers Ebene} mit den übernommenen Werten.
+     */
+    public static final String LAYER = "replication";
+
+    /**
+     * Die Wartezeit vor einem erneuten Verbindungsversuch.
+     */
+    private static final long RECONNECT_MILLIS = 500;
+
+    private final ConfigManager manager;
+    private final InetSocketAddress leader;
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+    private final Object monitor = new Object();
+    private final Thread thread;
+
+    private volatile long sequence = -1;
+
+    /**
+     * Die Epoche des Leiters, von dem das letzte Abbild stammt, oder {@code 0}.
+     */
+    private volatile long epoch;
+    private volatile Socket socket;
+    private volatile boolean closed;
+
+    /**
+     * Legt die Ebene {@link #LAYER} an und beginnt, sich mit dem Leiter zu verbinden.
+     *
+     * @param manager Der lokale Konfigurations-Manager
+     * @param leader Die Adresse des Leiters
+     */
+    public ReplicationFollower(ConfigManager manager, InetSocketAddress leader) {
+        this.manager = manager;
+        this.leader = leader;
+        manager.getLayers().addLayer(ConfigSource.of(LAYER, this.values));
+
+        this.thread = new Thread(this::run, "ReplicationFollower-" + leader);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return Die Sequenznummer des Leiters, bis zu der alle Änderungen übernommen wurden, oder {@code -1}
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Wartet, bis alle Änderungen des Leiters bis einschließlich {@code sequence} übernommen wurden.
+     *
+     * @param sequence Die Sequenznummer des Leiters
+     * @param timeout Die maximale Wartezeit
+     * @param unit Die Einheit von {@code timeout}
+     * @return Ob die Sequenznummer erreicht wurde
+     * @throws InterruptedException Sollte der Thread beim Warten unterbrochen werden
+     */
+    public boolean await(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this.monitor) {
+            while (this.sequence < sequence) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    return false;
+                TimeUnit.NANOSECONDS.timedWait(this.monitor, remaining);
+            }
+        }
+        return true;
+    }
+
+    private void run() {
+        while (!this.closed) {
+            try (Socket s = new Socket()) {
+                this.socket = s;
+                s.connect(this.leader);
+                s.setTcpNoDelay(true);
+                s.setSoTimeout(ReplicationProtocol.READ_TIMEOUT_MILLIS);
+                this.receive(new DataInputStream(new BufferedInputStream(s.getInputStream())),
+                        new DataOutputStream(new BufferedOutputStream(s.getOutputStream())));
+            } catch (IOException e) {
+                if (!this.closed)
+                    LOGGER.log(Level.FINE, "Verbindung zu " + this.leader + " unterbrochen", e);
+            }
+
+            try {
+                if (!this.closed)
+                    Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void receive(DataInputStream in, DataOutputStream out) throws IOException {
+        out.writeLong(this.epoch);
+        out.writeLong(this.sequence);
+        out.flush();
+
+        while (!this.closed) {
+            byte type = in.readByte();
+            if (type == ReplicationProtocol.SNAPSHOT) {
+                long epoch = in.readLong();
+                long seq = in.readLong();
+                int count = in.readInt();
+                this.values.clear();
+                for (int i = 0; i < count; i++) {
+                    String name = in.readUTF();
+                    String value = ReplicationProtocol.readValue(in);
+                    if (value != null)
+                        this.values.put(name, value);
+                }
+                this.manager.getLayers().refresh(LAYER);
+                this.epoch = epoch;
+                this.advance(seq);
+            } else if (type == ReplicationProtocol.DELTA) {
+                long seq = in.readLong();
+                String name = in.readUTF();
+                String value = ReplicationProtocol.readValue(in);
+                if (value == null)
+                    this.values.remove(name);
+                else
+                    this.values.put(name, value);
+                this.manager.getLayers().refresh(LAYER, name);
+                this.advance(seq);
+            } else if (type != ReplicationProtocol.HEARTBEAT) {
+                throw new IOException("Unknown replication message: " + type);
+            }
+        }
+    }
+
+    private void advance(long seq) {
+        synchronized (this.monitor) {
+            this.sequence = seq;
+            this.monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Trennt die Verbindung zum Leiter. Die übernommenen Werte bleiben als Ebene erhalten.
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.thread.interrupt();
+        Socket s = this.socket;
+        if (s != null)
+            s.close();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * ConfigManager
+ * ReplicationLeader.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.replication;
+
+import de.noisruker.config.ConfigChange;
+import de.noisruker.config.ConfigChangeFeed;
+import de.noisruker.config.ConfigDescriptor;
+import de.noisruker.config.ConfigManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Verteilt die Änderungen eines {@link ConfigManager Konfigurations-Managers} über TCP an beliebig viele
+ * {@link ReplicationFollower Folger}. Die Änderungen werden aus dem {@link ConfigChangeFeed Änderungsverlauf}
+ * gelesen, sodass das Ändern eines Wertes nicht auf die Folger wartet.
+ * <p>
+ * Ein Folger erhält zunächst alle Änderungen seit seiner zuletzt übernommenen Sequenznummer. Ist er so weit
+ * zurück, dass diese nicht mehr im Verlauf liegen, oder besitzt er noch keinen Stand, erhält er zuerst alle
+ * Werte als Abbild und danach die folgenden Änderungen. Das gilt auch, wenn sein Stand von einem früheren Start
+ * des Leiters stammt.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ * @see ReplicationFollower
+ */
+public final class ReplicationLeader implements Closeable {
+
+    private final ConfigManager manager;
+    private final ServerSocket server;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Unterscheidet diesen Start des Leiters von früheren, deren Sequenznummern nicht mehr gelten.
+     */
+    private final long epoch = newEpoch();
+    private volatile boolean closed;
+
+    /**
+     * Öffnet den Port und beginnt, Folger anzunehmen.
+     *
+     * @param manager Der Konfigurations-Manager, dessen Änderungen verteilt werden
+     * @param address Die Adresse, an die gebunden wird, zum Beispiel {@link InetAddress#getLoopbackAddress()}
+     * @param port Der Port oder {@code 0} für einen freien Port
+     * @throws IOException Sollte der Port nicht geöffnet werden können
+     */
+    public ReplicationLeader(ConfigManager manager, InetAddress address, int port) throws IOException {
+        this.manager = manager;
+        this.server = new ServerSocket();
+        this.server.bind(new InetSocketAddress(address, port));
+
+        Thread acceptor = new Thread(this::accept, "ReplicationLeader-" + this.getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return Der Port, an dem Folger angenommen werden
+     */
+    public int getPort() {
+        return this.server.getLocalPort();
+    }
+
+    /**
+     * @return Die Anzahl der verbundenen Folger
+     */
+    public int getFollowerCount() {
+        return this.connections.size();
+    }
+
+    private void accept() {
+        while (!this.closed) {
+            try {
+                Socket socket = this.server.accept();
+                socket.setTcpNoDelay(true);
+                this.connections.add(socket);
+                Thread t = new Thread(() -> this.serve(socket), "ReplicationLeader-" + socket.getRemoteSocketAddress());
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                if (!this.closed)
+                    LOGGER.log(Level.WARNING, "Fehler beim Annehmen eines Folgers!", e);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            ConfigChangeFeed feed = this.manager.getChangeFeed();
+            long epoch = in.readLong();
+            long seq = in.readLong();
+
+            boolean known = epoch == this.epoch && seq >= 0 && seq <= feed.getSequence();
+            ConfigChangeFeed.Batch batch = known ? feed.changesSince(seq) : null;
+            while (!this.closed) {
+                if (batch == null || batch.isOverflow()) {
+                    seq = this.sendSnapshot(out);
+                } else {
+                    List<ConfigChange> changes = batch.getChanges();
+                    for (ConfigChange change : changes) {
+                        out.writeByte(ReplicationProtocol.DELTA);
+                        out.writeLong(change.getSequence());
+                        out.writeUTF(change.getName());
+                        ReplicationProtocol.writeValue(out, change.getValue());
+                    }
+                    seq = batch.getSequence();
+                    if (changes.isEmpty() && !feed.await(seq, ReplicationProtocol.HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS))
+                        out.writeByte(ReplicationProtocol.HEARTBEAT);
+                }
+                out.flush();
+                batch = feed.changesSince(seq);
+            }
+        } catch (SocketException e) {
+            // Der Folger hat die Verbindung getrennt
+        } catch (IOException e) {
+            if (!this.closed)
+                LOGGER.log(Level.WARNING, "Fehler bei der Verbindung zu " + socket.getRemoteSocketAddress() + "!", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.connections.remove(socket);
+        }
+    }
+
+    /**
+     * Sendet alle Werte. Die Sequenznummer wird vor den Werten gelesen, sodass spätere Änderungen in jedem Fall
+     * noch als Änderung gesendet werden.
+     *
+     * @return Die Sequenznummer des Abbilds
+     */
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        long seq = this.manager.getChangeFeed().getSequence();
+        List<ConfigDescriptor> descriptors = this.manager.getDescriptors();
+
+        out.writeByte(ReplicationProtocol.SNAPSHOT);
+        out.writeLong(this.epoch);
+        out.writeLong(seq);
+        out.writeInt(descriptors.size());
+        for (ConfigDescriptor d : descriptors) {
+            out.writeUTF(d.getName());
+            ReplicationProtocol.writeValue(out, this.manager.getValue(d.getName()));
+        }
+        return seq;
+    }
+
+    private static long newEpoch() {
+        long epoch;
+        do {
+            epoch = new SecureRandom().nextLong();
+        } while (epoch == 0);
+        return epoch;
+    }
+
+    /**
+     * Schließt den Port und trennt alle Folger.
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.server.close();
+        for (Socket socket : this.connections)
+            socket.close();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * ConfigManager
+ * ReplicationProtocol.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Der Aufbau der Nachrichten zwischen {@link ReplicationLeader} und {@link ReplicationFollower}.
+ * <p>
+ * Nach dem Verbindungsaufbau sendet der Folger die Epoche des Leiters, von dem sein Stand stammt, und die
+ * Sequenznummer der zuletzt übernommenen Änderung, oder {@code 0} und {@code -1}, wenn er noch keinen Stand besitzt.
+ * Die Epoche wird bei jedem Start eines Leiters zufällig gewählt, da dessen Sequenznummern dann wieder bei
+ * {@code 0} beginnen. Danach sendet nur noch der Leiter. Jede Nachricht beginnt mit einem Byte für ihre Art:
+ * <ul>
+ *     <li>{@link #SNAPSHOT}: Epoche, Sequenznummer, Anzahl, und so viele Paare aus Name und Wert</li>
+ *     <li>{@link #DELTA}: Sequenznummer, Name und Wert einer einzelnen Änderung</li>
+ *     <li>{@link #HEARTBEAT}: Keine weiteren Daten, hält die Verbindung ohne Änderungen offen</li>
+ * </ul>
+ * Werte werden als Länge und UTF-8 Bytes übertragen, {@code null} als Länge {@code -1}.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+final class ReplicationProtocol {
+
+    static final byte SNAPSHOT = 'S';
+    static final byte DELTA = 'D';
+    static final byte HEARTBEAT = 'H';
+
+    /**
+     * Die Zeit, nach der der Leiter ohne Änderungen ein {@link #HEARTBEAT} sendet.
+     */
+    static final long HEARTBEAT_MILLIS = 1000;
+
+    /**
+     * Die Zeit, nach der ein Folger ohne jede Nachricht die Verbindung als abgebrochen ansieht. Entspricht
+     * mehreren ausgebliebenen {@link #HEARTBEAT Heartbeats}.
+     */
+    static final int READ_TIMEOUT_MILLIS = (int) (3 * HEARTBEAT_MILLIS);
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeValue(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readValue(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,19 @@
+module de.noisruker.config {
+    requires java.base;
+    requires de.noisruker.event;
+    requires de.noisruker.logger;
+    requires java.xml;
+    requires java.logging;
+    requires static java.management;
+    requires jdk.jfr;
+
+    exports de.noisruker.config;
+    exports de.noisruker.config.event;
+    exports de.noisruker.config.codec;
+    exports de.noisruker.config.jfr;
+    exports de.noisruker.config.replication;
+
+    uses de.noisruker.config.codec.ConfigCodec;
+    provides de.noisruker.config.codec.ConfigCodec with de.noisruker.config.codec.XmlConfigCodec,
+            de.noisruker.config.codec.JsonConfigCodec, de.noisruker.config.codec.PropertiesConfigCodec;
+}
\ No newline at end of file
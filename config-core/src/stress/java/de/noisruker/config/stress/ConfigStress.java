@@ -0,0 +1,313 @@
+/*
+ * ConfigManager
+ * ConfigStress.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.stress;
+
+import de.noisruker.config.ConfigChange;
+import de.noisruker.config.ConfigChangeFeed;
+import de.noisruker.config.ConfigChangeListener;
+import de.noisruker.config.ConfigDescriptor;
+import de.noisruker.config.ConfigElement;
+import de.noisruker.config.ConfigElementType;
+import de.noisruker.config.ConfigManager;
+import de.noisruker.config.ConfigSource;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Belastet den {@link ConfigManager Konfigurations-Manager} mit gleichzeitigen Zugriffen und misst den Durchsatz
+ * bei 1 bis N Threads. Jedes Szenario prüft dabei Bedingungen, die bei fehlender Synchronisierung oder unsicherer
+ * Veröffentlichung verletzt werden. Ein Szenario läuft mit den arbeitenden Threads und, wo angegeben, einem
+ * zusätzlichen störenden Thread:
+ * <ul>
+ *     <li>{@code register/get}: Erneutes Registrieren während des Lesens der Beschreibungen und Werte</li>
+ *     <li>{@code load/read}: Ein Thread lädt die Konfigurationsdatei, während gelesen wird</li>
+ *     <li>{@code dispatch/rebuild}: Ein Thread ersetzt die Zuhörer wie beim Neuaufbau der Oberfläche, während
+ *     Werte geändert werden</li>
+ *     <li>{@code save/write}: Ein Thread speichert und liest die Datei zurück, während Werte geändert werden</li>
+ * </ul>
+ * Nach jedem Durchlauf muss die letzte Änderung jedes Elements im {@link ConfigManager#getChangeFeed()
+ * Änderungsverlauf} dem Wert des Feldes entsprechen.
+ * <p>
+ * Vor den Szenarien wird geprüft, dass eine {@link ConfigManager#loadLazy(String) verzögert geladene} Datei
+ * verlustfrei in sich selbst gespeichert werden kann.
+ * <p>
+ * Aufruf über {@code gradle :config-core:stress} oder mit den Argumenten {@code [maxThreads] [millis]}. Wird eine
+ * Bedingung verletzt, endet das Programm mit dem Status 1.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public final class ConfigStress {
+
+    /**
+     * Die Elemente, die während der Szenarien gelesen und geändert werden.
+     */
+    public static final class Values {
+        @ConfigElement(defaultValue = "0", type = ConfigElementType.COUNT, description = "stress.count.description", name = "stress.count", location = "stress", visible = true)
+        public static Integer count = 0;
+
+        @ConfigElement(defaultValue = "false", type = ConfigElementType.CHECK, description = "stress.flag.description", name = "stress.flag", location = "stress", visible = true)
+        public static Boolean flag = false;
+
+        @ConfigElement(defaultValue = "", type = ConfigElementType.TEXT, description = "stress.text.description", name = "stress.text", location = "stress", visible = true)
+        public static String text = "";
+
+        @ConfigElement(defaultValue = "0", type = ConfigElementType.LONG, description = "stress.size.description", name = "stress.size", location = "stress.limits", visible = true)
+        public static Long size = 0L;
+    }
+
+    private static final String[] NAMES = {"stress.count", "stress.flag", "stress.text", "stress.size"};
+
+    /**
+     * Die obere Grenze der geschriebenen Zahlenwerte.
+     */
+    private static final int MAX_VALUE = 1000;
+
+    private final ConfigManager manager = ConfigManager.getInstance();
+    private final AtomicLong failures = new AtomicLong();
+    private final File file;
+    private final int descriptors;
+
+    private ConfigStress() throws Exception {
+        this.manager.register(Values.class);
+        this.descriptors = this.manager.getDescriptors().size();
+        this.file = File.createTempFile("config-stress", ".cfg");
+        this.file.deleteOnExit();
+        this.manager.save(this.file);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+
+        ConfigStress stress = new ConfigStress();
+        stress.execute(stress::lazySaveRoundTrip);
+        System.out.printf(Locale.ROOT, "%-18s %8s %14s %9s%n", "scenario", "threads", "ops/s", "scaling");
+        stress.measure("register/get", maxThreads, millis, stress::registerAndGet, null);
+        stress.measure("load/read", maxThreads, millis, stress::read, stress::load);
+        stress.measure("dispatch/rebuild", maxThreads, millis, stress::write, stress::rebuildListeners);
+        stress.measure("save/write", maxThreads, millis, stress::write, stress::saveAndVerify);
+
+        if (stress.failures.get() > 0) {
+            System.out.println(stress.failures.get() + " violated invariants");
+            System.exit(1);
+        }
+        System.out.println("no violated invariants");
+    }
+
+    /**
+     * Eine Operation, die von einem Thread wiederholt ausgeführt wird.
+     */
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private void measure(String scenario, int maxThreads, long millis, Operation worker, Operation disturber) throws InterruptedException {
+        double base = 0;
+        for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads && threads * 2 > maxThreads ? maxThreads : threads * 2) {
+            double throughput = this.run(threads, millis, worker, disturber);
+            this.verifyFeed(scenario);
+            if (threads == 1)
+                base = throughput;
+            System.out.printf(Locale.ROOT, "%-18s %8d %14.0f %8.2fx%n", scenario, threads, throughput, base == 0 ? 0 : throughput / base);
+        }
+    }
+
+    /**
+     * @return Die Anzahl der Operationen der arbeitenden Threads je Sekunde
+     */
+    private double run(int threads, long millis, Operation worker, Operation disturber) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong operations = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> all = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            all.add(new Thread(() -> {
+                long count = 0;
+                await(start);
+                while (running.get()) {
+                    this.execute(worker);
+                    count++;
+                }
+                operations.addAndGet(count);
+            }, "stress-worker-" + i));
+        }
+        if (disturber != null) {
+            all.add(new Thread(() -> {
+                await(start);
+                while (running.get())
+                    this.execute(disturber);
+            }, "stress-disturber"));
+        }
+
+        all.forEach(Thread::start);
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(millis);
+        running.set(false);
+        for (Thread t : all)
+            t.join();
+        return operations.get() * 1e9 / (System.nanoTime() - begin);
+    }
+
+    /**
+     * Prüft, dass die zuletzt veröffentlichte Änderung jedes Elements dem Wert seines Feldes entspricht. Wird nur
+     * aufgerufen, während keine Threads mehr schreiben.
+     */
+    private void verifyFeed(String scenario) {
+        ConfigChangeFeed feed = this.manager.getChangeFeed();
+        Map<String, String> last = new HashMap<>();
+        for (ConfigChange change : feed.changesSince(Math.max(0, feed.getSequence() - feed.getCapacity())).getChanges())
+            last.put(change.getName(), change.getValue());
+        for (Map.Entry<String, String> e : last.entrySet())
+            if (!Objects.equals(e.getValue(), this.manager.getValue(e.getKey())))
+                this.fail(scenario + ": last change of " + e.getKey() + " is " + e.getValue()
+                        + " but the field is " + this.manager.getValue(e.getKey()));
+    }
+
+    private void execute(Operation operation) {
+        try {
+            operation.run();
+        } catch (Exception | AssertionError e) {
+            this.fail(Thread.currentThread().getName() + ": " + e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fail(String message) {
+        // Nur die ersten Verletzungen ausgeben, um die Messung nicht durch die Ausgabe zu verfälschen
+        if (this.failures.incrementAndGet() <= 10)
+            System.out.println("FAILED " + message);
+    }
+
+    private static String randomName() {
+        return NAMES[ThreadLocalRandom.current().nextInt(NAMES.length)];
+    }
+
+    private void registerAndGet() throws Exception {
+        if (ThreadLocalRandom.current().nextInt(16) == 0)
+            this.manager.register(Values.class);
+        String name = randomName();
+        ConfigDescriptor d = this.manager.getDescriptor(name);
+        if (d == null || !d.getName().equals(name))
+            this.fail("missing descriptor " + name);
+        if (this.manager.getDescriptors().size() != this.descriptors)
+            this.fail("descriptor count changed to " + this.manager.getDescriptors().size());
+    }
+
+    private void read() {
+        Object count = this.manager.get("stress.count");
+        if (!(count instanceof Integer) || (Integer) count < 0 || (Integer) count > MAX_VALUE)
+            this.fail("unexpected count " + count);
+        if (this.manager.get("stress.text") == null)
+            this.fail("text is null while loading");
+    }
+
+    private void load() throws Exception {
+        this.manager.load(this.file.getPath());
+    }
+
+    private void write() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (random.nextInt(4)) {
+            case 0:
+                this.manager.set("stress.count", random.nextInt(MAX_VALUE + 1));
+                break;
+            case 1:
+                this.manager.set("stress.flag", random.nextBoolean());
+                break;
+            case 2:
+                this.manager.set("stress.text", "value-" + random.nextInt(MAX_VALUE));
+                break;
+            default:
+                this.manager.set("stress.size", (long) random.nextInt(MAX_VALUE));
+        }
+    }
+
+    private void rebuildListeners() {
+        List<ConfigChangeListener> listeners = new ArrayList<>();
+        for (String name : NAMES) {
+            ConfigChangeListener listener = change -> {
+                if (change.getName().equals(name) && change.getValue() == null)
+                    this.fail("change of " + name + " without value");
+            };
+            listeners.add(listener);
+            this.manager.addChangeListener(listener);
+        }
+        for (ConfigChangeListener listener : listeners)
+            if (!this.manager.removeChangeListener(listener))
+                this.fail("listener was lost");
+    }
+
+    /**
+     * Lädt eine Datei verzögert und speichert sofort in dieselbe Datei. Dabei darf kein Wert verloren gehen.
+     */
+    private void lazySaveRoundTrip() throws Exception {
+        File lazyFile = File.createTempFile("config-stress-lazy", ".cfg");
+        lazyFile.deleteOnExit();
+        new File(lazyFile.getPath() + ".idx").deleteOnExit();
+
+        this.manager.set("stress.count", MAX_VALUE / 2);
+        this.manager.set("stress.text", "lazy");
+        this.manager.save(lazyFile);
+
+        this.manager.loadLazy(lazyFile.getPath());
+        this.manager.save(lazyFile);
+
+        ConfigSource source = ConfigSource.file(lazyFile.getPath());
+        for (String name : NAMES)
+            if (source.get(this.manager.getDescriptor(name)) == null)
+                this.fail("lazily loaded file lost " + name + " when saved to itself");
+        if (!String.valueOf(MAX_VALUE / 2).equals(source.get(this.manager.getDescriptor("stress.count")))
+                || !"lazy".equals(source.get(this.manager.getDescriptor("stress.text"))))
+            this.fail("lazily loaded file changed its values when saved to itself");
+    }
+
+    private void saveAndVerify() throws Exception {
+        this.manager.save(this.file);
+        ConfigSource source = ConfigSource.file(this.file.getPath());
+        for (String name : NAMES) {
+            ConfigDescriptor d = this.manager.getDescriptor(name);
+            String value = source.get(d);
+            if (value == null)
+                this.fail("saved file misses " + name);
+            else
+                d.getType().parse(value, Values.class.getField(d.getFieldName()).getType());
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * ConfigManager
+ * ReplicationLoopback.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package de.noisruker.config.stress;
+
+import de.noisruker.config.ConfigChangeFeed;
+import de.noisruker.config.ConfigManager;
+import de.noisruker.config.replication.ReplicationFollower;
+import de.noisruker.config.replication.ReplicationLeader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prüft die Replikation über die Loopback-Schnittstelle. Der {@link ReplicationLeader Leiter} läuft in diesem
+ * Prozess auf {@code 127.0.0.1} mit einem freien Port, der {@link ReplicationFollower Folger} in einem zweiten
+ * Prozess mit eigenem {@link ConfigManager Konfigurations-Manager}, der über seine Standardein- und -ausgabe
+ * gesteuert wird. Geprüft wird, dass
+ * <ul>
+ *     <li>ein neuer Folger die vorhandenen Werte als Abbild erhält,</li>
+ *     <li>eine spätere Änderung als einzelne Änderung beim Folger ankommt und</li>
+ *     <li>ein Folger, der so weit zurückfällt, dass seine Änderungen nicht mehr im
+ *     {@link ConfigChangeFeed Änderungsverlauf} liegen, wieder ein Abbild erhält.</li>
+ * </ul>
+ * Aufruf über {@code gradle :config-core:replicationLoopback}. Wird eine Bedingung verletzt, endet das Programm
+ * mit dem Status 1.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public final class ReplicationLoopback {
+
+    private static final long TIMEOUT_SECONDS = 20;
+
+    /**
+     * Die Anzahl der Änderungen, während derer der Folger angehalten wird. Sie liegt deutlich über der Kapazität
+     * des Änderungsverlaufs.
+     */
+    private static final int LAGGING_CHANGES = 4 * ConfigChangeFeed.DEFAULT_CAPACITY;
+
+    /**
+     * Die Länge der Texte, die während des Anhaltens geschrieben werden, damit die Puffer der Verbindung volllaufen
+     * und der Leiter hinter dem Änderungsverlauf zurückbleibt.
+     */
+    private static final int LAGGING_TEXT = 8192;
+
+    /**
+     * Den Antworten des Folgers vorangestellt, um sie von anderen Ausgaben zu unterscheiden.
+     */
+    private static final String REPLY = "> ";
+
+    private final ConfigManager manager = ConfigManager.getInstance();
+    private int failures;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && "follower".equals(args[0])) {
+            follower(Integer.parseInt(args[1]));
+            return;
+        }
+
+        ReplicationLoopback loopback = new ReplicationLoopback();
+        loopback.run();
+        if (loopback.failures > 0) {
+            System.out.println(loopback.failures + " violated invariants");
+            System.exit(1);
+        }
+        System.out.println("no violated invariants");
+    }
+
+    private void run() throws Exception {
+        this.manager.register(ConfigStress.Values.class);
+        this.manager.set("stress.count", 11);
+
+        try (ReplicationLeader leader = new ReplicationLeader(this.manager, InetAddress.getLoopbackAddress(), 0)) {
+            Process process = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"), ReplicationLoopback.class.getName(),
+                    "follower", Integer.toString(leader.getPort()))
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            try (PrintWriter out = new PrintWriter(process.getOutputStream(), true, StandardCharsets.UTF_8);
+                 BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                this.snapshot(out, in);
+                this.delta(out, in);
+                this.overflow(out, in);
+            } finally {
+                if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                    process.destroyForcibly();
+            }
+        }
+    }
+
+    private void snapshot(PrintWriter out, BufferedReader in) throws IOException {
+        String[] state = this.await(out, in);
+        this.check("snapshot", state, "11", this.manager.getValue("stress.text"));
+    }
+
+    private void delta(PrintWriter out, BufferedReader in) throws IOException {
+        this.manager.set("stress.count", 12);
+        String[] state = this.await(out, in);
+        this.check("delta", state, "12", this.manager.getValue("stress.text"));
+    }
+
+    private void overflow(PrintWriter out, BufferedReader in) throws IOException {
+        call(out, in, "pause");
+        char[] text = new char[LAGGING_TEXT];
+        for (int i = 0; i < LAGGING_CHANGES; i++) {
+            Arrays.fill(text, (char) ('a' + i % 26));
+            this.manager.set("stress.text", i + new String(text));
+        }
+        call(out, in, "resume");
+
+        String[] state = this.await(out, in);
+        this.check("overflow", state, "12", this.manager.getValue("stress.text"));
+        // Wurden alle Änderungen einzeln übertragen, ist kein Abbild gesendet worden
+        if (Integer.parseInt(state[3]) >= LAGGING_CHANGES)
+            this.fail("overflow: the follower received all " + state[3] + " changes instead of a snapshot");
+    }
+
+    /**
+     * Wartet, bis der Folger den aktuellen Stand des Leiters übernommen hat.
+     *
+     * @return Ob der Stand erreicht wurde, der Wert von {@code stress.count}, der Hash von {@code stress.text} und
+     * die Anzahl der Änderungen von {@code stress.text} seit dem letzten Anhalten
+     */
+    private String[] await(PrintWriter out, BufferedReader in) throws IOException {
+        return call(out, in, "await " + this.manager.getChangeFeed().getSequence()).split(" ");
+    }
+
+    private void check(String scenario, String[] state, String count, String text) {
+        if (!Boolean.parseBoolean(state[0]))
+            this.fail(scenario + ": the follower did not reach the leader's sequence");
+        else if (!count.equals(state[1]) || Objects.hashCode(text) != Integer.parseInt(state[2]))
+            this.fail(scenario + ": the follower has count " + state[1] + " instead of " + count + " or a different text");
+        else
+            System.out.println(scenario + " ok");
+    }
+
+    private void fail(String message) {
+        this.failures++;
+        System.out.println("FAILED " + message);
+    }
+
+    private static String call(PrintWriter out, BufferedReader in, String command) throws IOException {
+        out.println(command);
+        for (String line; (line = in.readLine()) != null; ) {
+            if (line.startsWith(REPLY))
+                return line.substring(REPLY.length());
+            System.out.println(line);
+        }
+        throw new IOException("The follower exited before answering " + command);
+    }
+
+    /**
+     * Der Folger-Prozess. Beantwortet die Befehle {@code await <seq>}, {@code pause} und {@code resume}. Angehalten
+     * wird der Folger, indem der Zuhörer von {@code stress.text} bei der nächsten Änderung blockiert.
+     */
+    private static void follower(int port) throws Exception {
+        ConfigManager manager = ConfigManager.getInstance();
+        manager.register(ConfigStress.Values.class);
+
+        AtomicInteger textChanges = new AtomicInteger();
+        AtomicReference<CountDownLatch> gate = new AtomicReference<>();
+        manager.addChangeListener("stress.text", change -> {
+            textChanges.incrementAndGet();
+            CountDownLatch latch = gate.get();
+            if (latch == null)
+                return;
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try (ReplicationFollower follower = new ReplicationFollower(manager, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+             BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            for (String line; (line = in.readLine()) != null; ) {
+                String[] command = line.split(" ");
+                switch (command[0]) {
+                    case "await":
+                        boolean reached = follower.await(Long.parseLong(command[1]), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                        reply(reached + " " + manager.getValue("stress.count") + " "
+                                + Objects.hashCode(manager.getValue("stress.text")) + " " + textChanges.get());
+                        break;
+                    case "pause":
+                        textChanges.set(0);
+                        gate.set(new CountDownLatch(1));
+                        reply("paused");
+                        break;
+                    case "resume":
+                        gate.getAndSet(null).countDown();
+                        reply("resumed");
+                        break;
+                    default:
+                        reply("unknown command " + command[0]);
+                }
+            }
+        }
+    }
+
+    private static void reply(String message) {
+        System.out.println(REPLY + message);
+        System.out.flush();
+    }
+}
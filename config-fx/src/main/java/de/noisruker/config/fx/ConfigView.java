@@ -0,0 +1,451 @@
+/*
+ * ConfigManager
+ * ConfigView.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.fx;
+
+import de.noisruker.config.ConfigChangeListener;
+import de.noisruker.config.ConfigDescriptor;
+import de.noisruker.config.ConfigElement;
+import de.noisruker.config.ConfigElementType;
+import de.noisruker.config.ConfigManager;
+import de.noisruker.config.ConfigOptions;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
+import org.controlsfx.control.ToggleSwitch;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.PropertyResourceBundle;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Die JavaFX-Oberfläche zum Bearbeiten der Elemente eines {@link ConfigManager Konfigurations-Managers}. Die
+ * Oberfläche liegt in einem eigenen Modul, sodass Anwendungen ohne Oberfläche JavaFX nicht laden müssen.
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public final class ConfigView {
+
+    private final ConfigManager manager;
+
+    /**
+     * Die Zuhörer der aktuell angezeigten Elemente, die bei einer Änderung die Oberfläche aktualisieren.
+     */
+    private final ArrayList<ChangeEntry> listeners = new ArrayList<>();
+
+    /**
+     * Die Auswahllisten je {@link ConfigOptions Optionen}, damit diese nicht bei jedem Anzeigen neu erstellt werden.
+     * Werden die Optionen eines Elements neu registriert, entsteht eine neue Liste.
+     */
+    private final HashMap<ConfigOptions, ObservableList<String>> optionItems = new HashMap<>();
+
+    /**
+     * Der beim Konfigurations-Manager registrierte Zuhörer, der Änderungen an die Oberfläche weiterreicht.
+     */
+    private final ConfigChangeListener changeListener = change -> {
+        if (Platform.isFxApplicationThread())
+            this.notifyListeners(change.getName());
+        else
+            Platform.runLater(() -> this.notifyListeners(change.getName()));
+    };
+
+    /**
+     * Die Oberfläche registriert sich beim Konfigurations-Manager, bis sie über {@link #dispose()} wieder
+     * entfernt wird.
+     *
+     * @param manager Der Konfigurations-Manager, dessen Elemente angezeigt werden
+     */
+    public ConfigView(ConfigManager manager) {
+        this.manager = manager;
+        manager.addChangeListener(this.changeListener);
+    }
+
+    /**
+     * Meldet die Oberfläche beim Konfigurations-Manager ab. Danach werden die angezeigten Elemente nicht mehr
+     * aktualisiert, und die Oberfläche kann vom Garbage Collector entfernt werden.
+     */
+    public void dispose() {
+        this.manager.removeChangeListener(this.changeListener);
+        this.listeners.clear();
+    }
+
+    /**
+     * Diese Methode baut einen Konfigurations-Baum auf und speichert diesen im mitgegebenen {@link TreeView}.
+     * Anschließend verwaltet er auch das in der mitgegebenen {@link VBox} alle Werte,
+     * die auf das im Tree ausgewählte Element passen angezeigt werden und verwaltet dort auftretenden Änderungen und
+     * übernimmt diese in die Konfigurationseinstellungen.
+     * Die mitgegebene {@link PropertyResourceBundle Sprachdatei} dient zur Übersetzung der Werte und muss, wenn angegeben <strong>alle</strong> keys der Konfigurationswerte enthalten.
+     *
+     * @param tree Der Baum in dem die Konfigurationsliste angezeigt wird.
+     * @param configurations Die Box, in der die Konfigurationen zum ausgewählten Thema bearbeitet werden können.
+     * @param language Die Sprachdatei mit den Übersetzungen der Werte oder {@code null}, wenn die Werte nicht übersetzt werden sollen.
+     */
+    public void createMenuTree(final TreeView<String> tree, final VBox configurations, final PropertyResourceBundle language) {
+        TreeItem<String> root = new TreeItem<>(language != null ? language.getString("config.location.config") : "Settings");
+
+        root.setExpanded(true);
+
+        tree.setRoot(root);
+
+        // Build tree
+        for (ConfigDescriptor d : this.manager.getDescriptors()) {
+            TreeItem<String> actual = null;
+
+            for (String s : d.getLocation().split("\\.")) {
+                if (actual == null) {
+                    actual = root;
+                    continue;
+                }
+                boolean found = false;
+                for (TreeItem<String> ti : actual.getChildren()) {
+                    if ((ti).getValue()
+                            .equalsIgnoreCase(language != null ? language.getString("config.location." + s) : s)) {
+                        actual = ti;
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    TreeItem<String> nti = new TreeItem<>(language != null ? language.getString("config.location." + s) : s);
+
+                    nti.setExpanded(true);
+                    actual.getChildren().add(0, nti);
+                    actual = nti;
+                }
+            }
+
+        }
+
+        // Build Config Elements when Tree Item is selected
+        tree.getSelectionModel().selectedItemProperty().addListener(((observable, oldValue, newValue) -> this.displayConfigValues(tree, configurations, language)));
+        tree.getSelectionModel().select(0);
+    }
+
+    /**
+     * Hilfsmethode für {@link #createMenuTree(TreeView, VBox, PropertyResourceBundle)}. Listet alle dem im TreeView ausgewählten Element zugeordneten Konfigurationswerte in der VBox auf.
+     * @param tree Der TreeView, der die Konfigurationspfade enthält
+     * @param configurations Die VBox in der die Werte Einstellbar sein sollen
+     * @param language Das Sprachpaket auf das zurückgegriffen werden soll oder null, wenn keines genutzt wird
+     */
+    private void displayConfigValues(final TreeView<String> tree, final VBox configurations, final PropertyResourceBundle language) {
+        this.listeners.clear();
+
+        TreeItem<String> selected = tree.getSelectionModel().getSelectedItem();
+
+        if (selected == null)
+            return;
+        StringBuilder location = new StringBuilder(selected.getValue());
+
+        TreeItem<String> actual = selected;
+
+        // Gets the config path position
+        while (actual != null) {
+
+            actual = actual.getParent();
+
+            if (actual != null)
+                location.insert(0, actual.getValue() + ".");
+        }
+        configurations.getChildren().clear();
+
+        VBox checks = new VBox();
+        checks.setPadding(new Insets(20, 0, 0, 0));
+        Label checksLabel = new Label((language != null ? language.getString("config.booleans") : "Further Configurations") + ":");
+        checksLabel.setWrapText(true);
+        checks.getChildren().add(checksLabel);
+        checks.setSpacing(20);
+
+        for (ConfigDescriptor d : this.manager.getDescriptors()) {
+            Field f = d.getField();
+            ConfigElement e = f.getAnnotation(ConfigElement.class);
+
+            // Checks if field should show up
+            if (!e.visible())
+                continue;
+
+            // Builds the path of the Element
+            StringBuilder fieldlocation = new StringBuilder();
+
+            for (String s : e.location().split("\\."))
+                if (!s.isEmpty())
+                    fieldlocation.append(fieldlocation.toString().equals("") ? "" : ".").append(language != null ? language.getString("config.location." + s) : s);
+
+            // Checks if this element is part of the configs for the selected tree item
+            if (!fieldlocation.toString().equalsIgnoreCase(location.toString()))
+                continue;
+
+
+            if (e.type() == ConfigElementType.CHECK) {
+                HBox check = new HBox();
+                check.setAlignment(Pos.CENTER_LEFT);
+                check.setSpacing(20);
+
+                ToggleSwitch toggleSwitch = new ToggleSwitch();
+
+                try {
+                    toggleSwitch.setSelected(f.getBoolean(null));
+                } catch (IllegalAccessException ignored) {
+                }
+
+                toggleSwitch.selectedProperty().addListener((o, oldValue, newValue) -> {
+                    if (oldValue != newValue && !this.change(e, newValue, language))
+                        toggleSwitch.setSelected(oldValue);
+                });
+
+                this.listeners.add(new ChangeEntry(e.name(), () -> {
+                    try {
+                        toggleSwitch.setSelected((Boolean) f.get(null));
+                    } catch (IllegalArgumentException | IllegalAccessException ignored) {
+                    }
+                }));
+
+                toggleSwitch.setPrefWidth(27.0);
+                Tooltip t = new Tooltip(language != null ? language.getString("config." + e.description()): e.description());
+                toggleSwitch.setTooltip(t);
+                Label l = new Label(language != null ? language.getString("config." + e.name()) : e.name());
+                l.setAlignment(Pos.CENTER);
+                l.setPrefHeight(18);
+                l.setWrapText(true);
+                l.setTooltip(t);
+
+                check.getChildren().addAll(toggleSwitch, l);
+
+                checks.getChildren().addAll(check);
+            } else if (e.type() == ConfigElementType.COUNT) {
+                Spinner<Integer> cb = new Spinner<>();
+                cb.setTooltip(new Tooltip(language != null ? language.getString("config." + e.description()) : e.description()));
+                cb.setEditable(true);
+                cb.setMaxWidth(Double.MAX_VALUE);
+                this.listeners.add(new ChangeEntry(e.name(), () -> {
+                    try {
+                        cb.getValueFactory().setValue(f.getInt(null));
+                    } catch (IllegalArgumentException | IllegalAccessException ignored) {
+                    }
+                }));
+                try {
+                    Integer min = this.manager.getIntegerMin(e.name()), max = this.manager.getIntegerMax(e.name());
+                    cb.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(min == null ? 0 : min,
+                            max == null ? Integer.MAX_VALUE : max, f.getInt(null)));
+                    cb.getValueFactory().valueProperty().addListener((o, oldValue, newValue) -> {
+                        if (!Objects.equals(oldValue, newValue) && !this.change(e, newValue, language))
+                            cb.getValueFactory().setValue(oldValue);
+                    });
+                } catch (IllegalArgumentException | IllegalAccessException e3) {
+                    e3.printStackTrace();
+                }
+
+                Label l = new Label(((language != null ? language.getString("config." + e.name()) : e.name()) + ":"));
+                l.setWrapText(true);
+                l.autosize();
+                configurations.getChildren().addAll(l, cb);
+            } else if (e.type() == ConfigElementType.TEXT) {
+
+                TextField cb = new TextField();
+                cb.setTooltip(new Tooltip(language != null ? language.getString("config." + e.description()) : e.description()));
+                cb.setMaxWidth(Double.MAX_VALUE);
+
+                try {
+                    cb.setText((String) f.get(null));
+                } catch (IllegalArgumentException | IllegalAccessException e2) {
+                    e2.printStackTrace();
+                }
+
+                this.listeners.add(new ChangeEntry(e.name(), () -> {
+                    try {
+                        if(!cb.getText().equals(f.get(null)))
+                            cb.setText((String) f.get(null));
+                    } catch (IllegalArgumentException | IllegalAccessException ignored) {
+
+                    }
+                }));
+
+                cb.addEventHandler(KeyEvent.KEY_RELEASED, events -> {
+                    if (!this.change(e, cb.getText(), language)) {
+                        try {
+                            cb.setText((String) f.get(null));
+                        } catch (IllegalArgumentException | IllegalAccessException ignored) { }
+                    }
+                });
+                Label l = new Label((language != null ? language.getString("config." + e.name()) : e.name() + ":"));
+                l.setWrapText(true);
+                l.autosize();
+
+                configurations.getChildren().addAll(l, cb);
+            } else if (e.type() == ConfigElementType.CHOOSE && this.manager.getOptions(e.name()) != null) {
+
+                ComboBox<String> cb = new ComboBox<>();
+                cb.setTooltip(new Tooltip(language != null ? language.getString("config." + e.description()) : e.description()));
+
+                cb.setItems(this.optionItems.computeIfAbsent(this.manager.getOptions(e.name()),
+                        options -> FXCollections.unmodifiableObservableList(FXCollections.observableArrayList(options.asList()))));
+
+                cb.setMaxWidth(Double.MAX_VALUE);
+
+                cb.setConverter(new StringConverter<>() {
+                    @Override
+                    public String toString(String s) {
+                        if (language != null && language.containsKey(e.name() + "." + s))
+                            return language.getString(e.name() + "." + s);
+                        return s;
+                    }
+
+                    @Override
+                    public String fromString(String s) {
+                        if (language == null)
+                            return s;
+                        for (String string : language.keySet()) {
+                            if (s.equals(language.getString(e.name() + "." + string)))
+                                return string;
+                        }
+                        return s;
+                    }
+                });
+
+                try {
+                    cb.setValue((String) f.get(null));
+                } catch (IllegalArgumentException | IllegalAccessException e2) {
+                    e2.printStackTrace();
+                }
+
+                this.listeners.add(new ChangeEntry(e.name(), () -> {
+                    try {
+                        cb.setValue((String) f.get(null));
+                    } catch (IllegalArgumentException | IllegalAccessException ignored) {
+
+                    }
+                }));
+
+                cb.addEventHandler(ActionEvent.ANY, events -> {
+                    if (!this.change(e, cb.getValue(), language)) {
+                        try {
+                            cb.setValue((String) f.get(null));
+                        } catch (IllegalArgumentException | IllegalAccessException ignored) { }
+                    }
+                });
+                Label l = new Label((language != null ? language.getString("config." + e.name()) : e.name() + ":"));
+                l.setWrapText(true);
+                l.autosize();
+
+                configurations.getChildren().addAll(l, cb);
+            } else if (e.type() != ConfigElementType.CHOOSE) {
+                // LONG, DOUBLE, ENUM, DURATION und LIST werden als Text bearbeitet und beim Übernehmen umgewandelt
+                TextField cb = new TextField();
+                cb.setTooltip(new Tooltip(language != null ? language.getString("config." + e.description()) : e.description()));
+                cb.setMaxWidth(Double.MAX_VALUE);
+
+                try {
+                    cb.setText(e.type().format(f.get(null)));
+                } catch (IllegalArgumentException | IllegalAccessException e2) {
+                    e2.printStackTrace();
+                }
+
+                this.listeners.add(new ChangeEntry(e.name(), () -> {
+                    try {
+                        String text = e.type().format(f.get(null));
+                        if (!cb.getText().equals(text))
+                            cb.setText(text);
+                    } catch (IllegalArgumentException | IllegalAccessException ignored) {
+
+                    }
+                }));
+
+                cb.addEventHandler(KeyEvent.KEY_RELEASED, events -> {
+                    Object newValue;
+                    try {
+                        newValue = e.type().parse(cb.getText(), f.getType());
+                    } catch (IllegalArgumentException incomplete) {
+                        return;
+                    }
+                    try {
+                        Object previous = f.get(null);
+                        if (!Objects.equals(previous, newValue) && !this.change(e, newValue, language))
+                            cb.setText(e.type().format(previous));
+                    } catch (IllegalArgumentException | IllegalAccessException e1) {
+                        e1.printStackTrace();
+                    }
+                });
+                Label l = new Label((language != null ? language.getString("config." + e.name()) : e.name() + ":"));
+                l.setWrapText(true);
+                l.autosize();
+
+                configurations.getChildren().addAll(l, cb);
+            }
+        }
+        if (checks.getChildren().size() > 1)
+            configurations.getChildren().add(checks);
+    }
+
+    /**
+     * Setzt den Wert über {@link ConfigManager#set(String, Object)} und meldet ein Scheitern im Log.
+     *
+     * @return Ob der Wert übernommen wurde
+     */
+    private boolean change(ConfigElement e, Object newValue, PropertyResourceBundle language) {
+        try {
+            this.manager.set(e.name(), newValue);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            LOGGER.log(Level.WARNING, ex.getMessage(),
+                    new Exception(language == null ? "Config change denied" : "warning.config_change_denied"));
+            return false;
+        }
+    }
+
+    private void notifyListeners(String fieldName) {
+        for (ChangeEntry e : new ArrayList<>(this.listeners))
+            if (e.getForValue().equals(fieldName))
+                e.getListener().onChange();
+    }
+
+    private static class ChangeEntry {
+        private final String s;
+        private final ActionListener l;
+
+        private ChangeEntry(String s, ActionListener l) {
+            this.s = s;
+            this.l = l;
+        }
+
+        private String getForValue() {
+            return s;
+        }
+
+        private ActionListener getListener() {
+            return l;
+        }
+    }
+
+    private interface ActionListener {
+        void onChange();
+    }
+}
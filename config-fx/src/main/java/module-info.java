@@ -0,0 +1,9 @@
+module de.noisruker.config.fx {
+    requires transitive de.noisruker.config;
+    requires transitive javafx.controls;
+    requires org.controlsfx.controls;
+    requires de.noisruker.logger;
+    requires java.logging;
+
+    exports de.noisruker.config.fx;
+}
@@ -0,0 +1,214 @@
+/*
+ * ConfigManager
+ * ConfigHttpEndpoint.java
+ * Copyright © 2021 Fabius Mettner
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.noisruker.config.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.noisruker.config.ConfigChangeFeed;
+import de.noisruker.config.ConfigDescriptor;
+import de.noisruker.config.ConfigManager;
+import de.noisruker.config.codec.ConfigRecord;
+import de.noisruker.config.codec.JsonConfigCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static de.noisruker.logger.Logger.LOGGER;
+
+/**
+ * Stellt die aktuellen Werte eines {@link ConfigManager Konfigurations-Managers} über HTTP als JSON-Objekt bereit,
+ * zugeordnet zum {@link de.noisruker.config.ConfigElement#name() Namen} der Elemente.
+ * <p>
+ * Die Version der Werte ist die {@link ConfigChangeFeed#getSequence() Sequenznummer} der letzten Änderung und
+ * wird zusammen mit einer zufälligen Kennung des Servers als {@code ETag} gesendet. Da die Sequenznummer nach einem
+ * Neustart wieder bei {@code 0} beginnt, passt so kein vor dem Neustart erhaltenes {@code ETag} auf neue Werte. Das JSON wird je Version nur einmal erzeugt und danach aus einem Puffer
+ * gesendet. Schickt ein Client die aktuelle Version als {@code If-None-Match}, erhält er {@code 304 Not Modified}.
+ * Mit dem Parameter {@code wait=<Sekunden>} wartet die Anfrage in diesem Fall, bis sich die Version ändert oder
+ * die Zeit abgelaufen ist:
+ * <pre>{@code
+ * curl -H 'If-None-Match: "3f2a9c1e7b5d4a60-42"' 'http://localhost:8080/config?wait=30'
+ * }</pre>
+ *
+ * @author Fabius Mettner
+ * @version 1.0
+ */
+public final class ConfigHttpEndpoint implements Closeable {
+
+    /**
+     * Der Pfad, unter dem die Werte bereitgestellt werden.
+     */
+    public static final String PATH = "/config";
+
+    /**
+     * Die längste Wartezeit in Sekunden, die ein Client über {@code wait} anfordern kann.
+     */
+    public static final int MAX_WAIT_SECONDS = 300;
+
+    private final ConfigManager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Die zufällige Kennung dieses Servers, die jedem {@code ETag} vorangestellt wird.
+     */
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Startet den Server.
+     *
+     * @param manager Der Konfigurations-Manager, dessen Werte bereitgestellt werden
+     * @param address Die Adresse und der Port des Servers, Port {@code 0} für einen freien Port
+     * @throws IOException Sollte der Port nicht geöffnet werden können
+     */
+    public ConfigHttpEndpoint(ConfigManager manager, InetSocketAddress address) throws IOException {
+        this.manager = manager;
+        this.server = HttpServer.create(address, 0);
+        // Wartende Anfragen belegen je einen Thread
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "ConfigHttpEndpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        this.server.setExecutor(this.executor);
+        this.server.createContext(PATH, this::handle);
+        this.server.start();
+    }
+
+    /**
+     * @return Die Adresse, an die der Server gebunden ist
+     */
+    public InetSocketAddress getAddress() {
+        return this.server.getAddress();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            Snapshot current = this.current();
+            String match = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (current.etag.equals(match)) {
+                int wait = waitSeconds(exchange.getRequestURI());
+                if (wait > 0 && this.manager.getChangeFeed().await(current.version, wait, TimeUnit.SECONDS))
+                    current = this.current();
+            }
+
+            exchange.getResponseHeaders().set("ETag", current.etag);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            if (current.etag.equals(match)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, current.body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(current.body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Fehler beim Beantworten einer Anfrage an " + PATH + "!", e);
+            throw e;
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static int waitSeconds(URI uri) {
+        String query = uri.getRawQuery();
+        if (query == null)
+            return 0;
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("wait=")) {
+                try {
+                    return Math.max(0, Math.min(MAX_WAIT_SECONDS, Integer.parseInt(parameter.substring(5))));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return Das JSON der aktuellen Version. Wird nur erzeugt, wenn sich die Version seit dem letzten Aufruf
+     * geändert hat.
+     */
+    private Snapshot current() throws IOException {
+        long version = this.manager.getChangeFeed().getSequence();
+        Snapshot s = this.snapshot;
+        if (s != null && s.version == version)
+            return s;
+
+        // Die Version wird vor den Werten gelesen, eine neuere Änderung führt so höchstens zu einem erneuten Erzeugen
+        List<ConfigRecord> records = new ArrayList<>();
+        for (ConfigDescriptor d : this.manager.getDescriptors())
+            records.add(new ConfigRecord(d.getName(), this.manager.getValue(d.getName()), d.getDefaultValue(), d.getType().getTypeName()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonConfigCodec().write(records, out);
+
+        s = new Snapshot(version, "\"" + this.epoch + "-" + version + "\"", out.toByteArray());
+        this.snapshot = s;
+        return s;
+    }
+
+    /**
+     * Beendet den Server. Wartende Anfragen werden abgebrochen.
+     */
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final String etag;
+        private final byte[] body;
+
+        private Snapshot(long version, String etag, byte[] body) {
+            this.version = version;
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+}
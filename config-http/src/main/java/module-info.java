@@ -0,0 +1,8 @@
+module de.noisruker.config.http {
+    requires transitive de.noisruker.config;
+    requires jdk.httpserver;
+    requires de.noisruker.logger;
+    requires java.logging;
+
+    exports de.noisruker.config.http;
+}
\ No newline at end of file
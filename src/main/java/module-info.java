@@ -1,11 +0,0 @@
-module de.noisruker.config {
-    requires java.base;
-    requires org.controlsfx.controls;
-    requires de.noisruker.event;
-    requires de.noisruker.logger;
-    requires java.xml;
-    requires java.logging;
-
-    exports de.noisruker.config;
-    exports de.noisruker.config.event;
-}
\ No newline at end of file